@@ -0,0 +1,77 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Result of applying a function to one execution.
+ * @see StepExecution#applyAll(Class, com.google.common.base.Function, int, long, long, java.util.concurrent.TimeUnit)
+ */
+@Restricted(Beta.class)
+public final class ApplyOutcome<T extends StepExecution> {
+
+    public enum Status {
+        SUCCEEDED,
+        FAILED,
+        /**
+         * The function did not finish within the per-item timeout, or had not even started by the overall deadline.
+         */
+        TIMED_OUT
+    }
+
+    private final @NonNull T execution;
+    private final @NonNull Status status;
+    private final @CheckForNull Throwable error;
+
+    ApplyOutcome(@NonNull T execution, @NonNull Status status, @CheckForNull Throwable error) {
+        this.execution = execution;
+        this.status = status;
+        this.error = error;
+    }
+
+    public @NonNull T getExecution() {
+        return execution;
+    }
+
+    public @NonNull Status getStatus() {
+        return status;
+    }
+
+    /**
+     * What the function threw, if {@link Status#FAILED}.
+     */
+    public @CheckForNull Throwable getError() {
+        return error;
+    }
+
+    @Override public String toString() {
+        return status + (error != null ? " (" + error + ")" : "");
+    }
+
+}
@@ -28,14 +28,18 @@ import hudson.EnvVars;
 import hudson.Launcher;
 import hudson.LauncherDecorator;
 import hudson.console.ConsoleLogFilter;
+import hudson.console.LineTransformationOutputStream;
 import hudson.model.AbstractBuild;
 import hudson.model.Node;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.List;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 
@@ -55,6 +59,7 @@ public abstract class BodyInvoker {
      * <dt>{@link EnvironmentExpander}<dd>use {@link EnvironmentExpander#merge}
      * <dt>{@link ConsoleLogFilter}<dd>use {@link #mergeConsoleLogFilters}
      * <dt>{@link LauncherDecorator}<dd>use {@link #mergeLauncherDecorators}
+     * <dt>{@link StepDeadline}<dd>use {@link StepDeadline#merge}
      * </dl>
      * @see StepContext#get(Class)
      *
@@ -62,6 +67,21 @@ public abstract class BodyInvoker {
      */
     public abstract BodyInvoker withContext(Object override);
 
+    /**
+     * Like {@link #withContext}, but the override is computed only when first requested inside the body, and then remembered.
+     * Useful for merged values such as {@link EnvironmentExpander} or {@link ConsoleLogFilter} which the body may never ask for.
+     * <p>The default implementation computes the value immediately.
+     * Implementations should override this to pass a {@link LazyContext} to {@link #withContext}
+     * and resolve it from {@link StepContext#get} as described there.
+     * @param type the type of object the factory provides
+     * @param factory computes the override; it will be serialized along with the body
+     * @return this object
+     */
+    public <T> BodyInvoker withLazyContext(@NonNull Class<T> type, @NonNull LazyContext.Factory<? extends T> factory) throws IOException, InterruptedException {
+        T value = factory.create();
+        return value != null ? withContext(value) : this;
+    }
+
     /**
      * Equivalent to calling {@link #withContext} on each object.
      */
@@ -110,6 +130,8 @@ public abstract class BodyInvoker {
 
     /**
      * Merge two console log filters so that both are applied.
+     * The result is flat: merging a filter which is itself a merge reuses its parts rather than nesting.
+     * Consecutive filters implementing {@link LineConsoleLogFilter} are run as a single stage.
      * @param original the original filter in {@link StepContext#get}, if any
      * @param subsequent your implementation; should expect {@code null} for the {@code build} parameter, and be {@link Serializable}
      * @return a merge of the two, or just yours if there was no original
@@ -119,8 +141,89 @@ public abstract class BodyInvoker {
         if (original == null) {
             return subsequent;
         }
-        return new MergedFilter(original, subsequent);
+        List<ConsoleLogFilter> filters = new ArrayList<>();
+        flatten(original, filters);
+        flatten(subsequent, filters);
+        return new CompiledFilter(filters.toArray(new ConsoleLogFilter[0]));
+    }
+    private static void flatten(ConsoleLogFilter filter, List<ConsoleLogFilter> filters) {
+        if (filter instanceof CompiledFilter) {
+            filters.addAll(Arrays.asList(((CompiledFilter) filter).filters));
+        } else if (filter instanceof MergedFilter) {
+            flatten(((MergedFilter) filter).original, filters);
+            flatten(((MergedFilter) filter).subsequent, filters);
+        } else {
+            filters.add(filter);
+        }
     }
+    /**
+     * Applies filters in sequence, the last one seeing the output first, as if each were merged in turn.
+     */
+    private static final class CompiledFilter extends ConsoleLogFilter implements Serializable {
+        private static final long serialVersionUID = 1;
+        private final ConsoleLogFilter[] filters;
+        CompiledFilter(ConsoleLogFilter[] filters) {
+            this.filters = filters;
+        }
+        @SuppressWarnings("rawtypes") // not my fault
+        @Override public OutputStream decorateLogger(AbstractBuild _ignore, OutputStream logger) throws IOException, InterruptedException {
+            OutputStream out = logger;
+            int i = 0;
+            while (i < filters.length) {
+                if (filters[i] instanceof LineConsoleLogFilter) {
+                    int j = i;
+                    while (j + 1 < filters.length && filters[j + 1] instanceof LineConsoleLogFilter) {
+                        j++;
+                    }
+                    if (j > i) {
+                        // output passes through later filters first
+                        LineConsoleLogFilter.Transformer[] transformers = new LineConsoleLogFilter.Transformer[j - i + 1];
+                        for (int k = j; k >= i; k--) {
+                            transformers[j - k] = ((LineConsoleLogFilter) filters[k]).newTransformer();
+                        }
+                        out = new LineStage(out, transformers);
+                        i = j + 1;
+                        continue;
+                    }
+                }
+                out = filters[i].decorateLogger(_ignore, out);
+                i++;
+            }
+            return out;
+        }
+    }
+    /**
+     * Runs each line through several {@link LineConsoleLogFilter.Transformer}s, reusing two buffers.
+     */
+    private static final class LineStage extends LineTransformationOutputStream.Delegating {
+        private final LineConsoleLogFilter.Transformer[] transformers;
+        private final Buffer a = new Buffer(), b = new Buffer();
+        LineStage(OutputStream out, LineConsoleLogFilter.Transformer[] transformers) {
+            super(out);
+            this.transformers = transformers;
+        }
+        @Override protected void eol(byte[] line, int len) throws IOException {
+            byte[] src = line;
+            int srcLen = len;
+            Buffer dst = a;
+            for (LineConsoleLogFilter.Transformer transformer : transformers) {
+                dst.reset();
+                transformer.transform(src, srcLen, dst);
+                src = dst.buffer();
+                srcLen = dst.size();
+                dst = dst == a ? b : a;
+            }
+            out.write(src, 0, srcLen);
+        }
+    }
+    private static final class Buffer extends ByteArrayOutputStream {
+        byte[] buffer() {
+            return buf;
+        }
+    }
+    /**
+     * No longer created, but may be present in serialized program state.
+     */
     private static final class MergedFilter extends ConsoleLogFilter implements Serializable {
         private static final long serialVersionUID = 1;
         private final ConsoleLogFilter original, subsequent;
@@ -128,6 +231,9 @@ public abstract class BodyInvoker {
             this.original = original;
             this.subsequent = subsequent;
         }
+        private Object readResolve() {
+            return mergeConsoleLogFilters(original, subsequent);
+        }
         @SuppressWarnings("rawtypes") // not my fault
         @Override public OutputStream decorateLogger(AbstractBuild _ignore, OutputStream logger) throws IOException, InterruptedException {
             return subsequent.decorateLogger(_ignore, original.decorateLogger(_ignore, logger));
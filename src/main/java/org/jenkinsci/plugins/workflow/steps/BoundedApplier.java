@@ -0,0 +1,285 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import hudson.util.ClassLoaderSanityThreadFactory;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * Implementation of {@link StepExecution#applyAll(Class, Function, int, long, long, TimeUnit)}.
+ * Executions are collected from each {@link StepExecutionIterator} as they are delivered,
+ * and the function is run on them in a dedicated pool, at most {@code parallelism} at a time.
+ * An item which times out is reported as such right away, but keeps its slot until its thread actually exits,
+ * so a function ignoring interruption cannot push the real concurrency past {@code parallelism}.
+ */
+final class BoundedApplier<T extends StepExecution> {
+
+    private static final Logger LOGGER = Logger.getLogger(BoundedApplier.class.getName());
+
+    /**
+     * Maximum number of threads shared by all concurrent calls.
+     */
+    private static final int MAX_THREADS = Math.max(1, SystemProperties.getInteger(BoundedApplier.class.getName() + ".maxThreads", 10));
+
+    private static ExecutorService executorService;
+
+    private static synchronized ExecutorService executorService() {
+        if (executorService == null) {
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new NamingThreadFactory(new ClassLoaderSanityThreadFactory(new DaemonThreadFactory()), "StepExecution.applyAll"));
+            pool.allowCoreThreadTimeOut(true);
+            executorService = pool;
+        }
+        return executorService;
+    }
+
+    private final Class<T> type;
+    private final Function<T, Void> f;
+    private final int parallelism;
+    private final long itemTimeoutNanos;
+    private final SettableFuture<List<ApplyOutcome<T>>> result = SettableFuture.create();
+
+    private final List<ApplyOutcome<T>> outcomes = new ArrayList<>();
+    private final Queue<T> queue = new ArrayDeque<>();
+    /** Items holding a slot: not yet abandoned before starting, nor exited. */
+    private final Set<Item> running = new HashSet<>();
+    /** Items launched whose outcome has not yet been recorded. */
+    private int unsettled;
+    private boolean iteratorsDone;
+    private boolean expired;
+
+    BoundedApplier(Class<T> type, Function<T, Void> f, int parallelism, long itemTimeoutNanos) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        this.type = type;
+        this.f = f;
+        this.parallelism = parallelism;
+        this.itemTimeoutNanos = itemTimeoutNanos;
+    }
+
+    ListenableFuture<List<ApplyOutcome<T>>> start(Iterable<StepExecutionIterator> iterators, long overallTimeoutNanos) {
+        ScheduledFuture<?> deadline = Timer.get().schedule(this::expire, overallTimeoutNanos, TimeUnit.NANOSECONDS);
+        result.addListener(() -> deadline.cancel(false), MoreExecutors.directExecutor());
+        List<ListenableFuture<?>> futures = new ArrayList<>();
+        for (StepExecutionIterator i : iterators) {
+            try {
+                futures.add(i.apply(type, e -> {
+                    offer(e);
+                    return null;
+                }));
+            } catch (RuntimeException x) {
+                LOGGER.log(Level.WARNING, "failed to enumerate executions from " + i, x);
+            }
+        }
+        Futures.successfulAsList(futures).addListener(() -> {
+            synchronized (this) {
+                iteratorsDone = true;
+            }
+            maybeFinish();
+        }, MoreExecutors.directExecutor());
+        return result;
+    }
+
+    private void offer(T execution) {
+        Item item;
+        synchronized (this) {
+            if (expired) {
+                outcomes.add(new ApplyOutcome<>(execution, ApplyOutcome.Status.TIMED_OUT, null));
+                return;
+            }
+            if (running.size() >= parallelism) {
+                queue.add(execution);
+                return;
+            }
+            item = new Item(execution);
+            running.add(item);
+            unsettled++;
+        }
+        launch(item);
+    }
+
+    private void launch(Item item) {
+        try {
+            executorService().execute(item.task);
+            if (itemTimeoutNanos > 0) {
+                item.timeout = Timer.get().schedule(() -> {
+                    if (settle(item, ApplyOutcome.Status.TIMED_OUT, null)) {
+                        abandon(item);
+                    }
+                }, itemTimeoutNanos, TimeUnit.NANOSECONDS);
+            }
+        } catch (RejectedExecutionException x) {
+            if (settle(item, ApplyOutcome.Status.FAILED, x)) {
+                abandon(item);
+            }
+        }
+    }
+
+    /**
+     * Records the outcome of an item, unless already recorded.
+     * @return true if this call recorded the outcome
+     */
+    private boolean settle(Item item, ApplyOutcome.Status status, Throwable error) {
+        synchronized (this) {
+            if (item.settled) {
+                return false;
+            }
+            item.settled = true;
+            unsettled--;
+            outcomes.add(new ApplyOutcome<>(item.execution, status, error));
+        }
+        ScheduledFuture<?> timeout = item.timeout;
+        if (timeout != null) {
+            timeout.cancel(false);
+        }
+        maybeFinish();
+        return true;
+    }
+
+    /**
+     * Stops an item whose outcome has been recorded.
+     * If it never started, its slot is released now; otherwise it is interrupted and releases its slot on exit.
+     */
+    private void abandon(Item item) {
+        if (item.started.compareAndSet(false, true)) {
+            item.task.cancel(false);
+            release(item);
+        } else {
+            item.task.cancel(true);
+        }
+    }
+
+    /**
+     * Frees the slot of an item and starts the next queued item in its place.
+     */
+    private void release(Item item) {
+        Item next = null;
+        synchronized (this) {
+            running.remove(item);
+            if (!expired) {
+                T execution = queue.poll();
+                if (execution != null) {
+                    next = new Item(execution);
+                    running.add(next);
+                    unsettled++;
+                }
+            }
+        }
+        if (next != null) {
+            launch(next);
+        }
+        maybeFinish();
+    }
+
+    private void expire() {
+        List<Item> toCancel;
+        synchronized (this) {
+            expired = true;
+            for (T execution : queue) {
+                outcomes.add(new ApplyOutcome<>(execution, ApplyOutcome.Status.TIMED_OUT, null));
+            }
+            queue.clear();
+            toCancel = new ArrayList<>(running);
+        }
+        for (Item item : toCancel) {
+            if (settle(item, ApplyOutcome.Status.TIMED_OUT, null)) {
+                abandon(item);
+            }
+        }
+        List<ApplyOutcome<T>> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(outcomes);
+        }
+        // Do not wait for iterators which are still loading executions.
+        result.set(snapshot);
+    }
+
+    private void maybeFinish() {
+        List<ApplyOutcome<T>> snapshot;
+        synchronized (this) {
+            // Items which timed out but are still running need not be awaited.
+            if (!iteratorsDone || unsettled > 0 || !queue.isEmpty()) {
+                return;
+            }
+            snapshot = new ArrayList<>(outcomes);
+        }
+        result.set(snapshot);
+    }
+
+    private final class Item implements Runnable {
+
+        final T execution;
+        /** Created up front so that {@link #expire} can always cancel it. */
+        final FutureTask<Void> task = new FutureTask<>(this, null);
+        final AtomicBoolean started = new AtomicBoolean();
+        volatile ScheduledFuture<?> timeout;
+        boolean settled;
+
+        Item(T execution) {
+            this.execution = execution;
+        }
+
+        @Override public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                f.apply(execution);
+                settle(this, ApplyOutcome.Status.SUCCEEDED, null);
+            } catch (Throwable x) {
+                settle(this, ApplyOutcome.Status.FAILED, x);
+            } finally {
+                release(this);
+            }
+        }
+
+    }
+
+}
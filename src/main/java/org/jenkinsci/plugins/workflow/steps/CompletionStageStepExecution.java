@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Step execution whose work is represented by a {@link CompletionStage} rather than a thread.
+ * Suitable for steps doing truly asynchronous I/O, such as a nonblocking HTTP client or a remoting call,
+ * which can then wait for a result without occupying a thread as {@link SynchronousNonBlockingStepExecution} does.
+ * <p>Completion of the stage is passed to {@link StepContext#onSuccess} or {@link StepContext#onFailure}.
+ * {@link #stop} cancels the stage; if cancelling a {@link CompletableFuture} does not also abort the underlying operation,
+ * override {@link #stop} to do so as well.
+ * As with {@link SynchronousNonBlockingStepExecution}, the operation cannot survive a restart.
+ * @param <T> the type of the return value (may be {@link Void})
+ * @see StepExecutions#completionStage
+ */
+public abstract class CompletionStageStepExecution<T> extends StepExecution {
+
+    private static final long serialVersionUID = 1L;
+
+    private transient volatile CompletionStage<T> stage;
+    private transient volatile Throwable stopCause;
+
+    protected CompletionStageStepExecution(@NonNull StepContext context) {
+        super(context);
+    }
+
+    /**
+     * Initiates the operation.
+     * Called from the CPS VM thread, so this should return promptly.
+     * Callbacks added to the stage will generally run in whatever thread completes it.
+     * @return a stage which completes when the step is over
+     * @throws Exception if the operation could not even be started, which fails the step
+     */
+    protected abstract @NonNull CompletionStage<T> startAsync() throws Exception;
+
+    @Override public final boolean start() throws Exception {
+        CompletionStage<T> s = startAsync();
+        stage = s;
+        s.whenComplete((result, x) -> {
+            if (x == null) {
+                getContext().onSuccess(result);
+                return;
+            }
+            if (x instanceof CompletionException && x.getCause() != null) {
+                x = x.getCause();
+            }
+            if (stopCause == null) {
+                getContext().onFailure(x);
+            } else if (!(x instanceof CancellationException)) {
+                stopCause.addSuppressed(x);
+            }
+        });
+        return false;
+    }
+
+    /**
+     * Cancels the stage, if it supports {@link CompletionStage#toCompletableFuture}, and fails the step.
+     */
+    @Override public void stop(@NonNull Throwable cause) throws Exception {
+        stopCause = cause;
+        CompletionStage<T> s = stage;
+        if (s != null) {
+            try {
+                s.toCompletableFuture().cancel(true);
+            } catch (UnsupportedOperationException x) {
+                // fine, the step just fails without waiting
+            }
+        }
+        super.stop(cause);
+    }
+
+    @Override public void onResume() {
+        getContext().onFailure(new SynchronousResumeNotSupportedException());
+    }
+
+    @Override public @NonNull String getStatus() {
+        CompletionStage<T> s = stage;
+        if (s == null) {
+            return "not yet started";
+        }
+        try {
+            if (s.toCompletableFuture().isDone()) {
+                return "completed";
+            }
+        } catch (UnsupportedOperationException x) {
+            // cannot tell
+        }
+        return "waiting for asynchronous result";
+    }
+
+}
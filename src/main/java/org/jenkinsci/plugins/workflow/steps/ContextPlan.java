@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link StepDescriptor#getRequiredContext} and {@link StepDescriptor#getProvidedContext} compiled once per descriptor.
+ * Each context type is assigned a small integer ID, so that subtype checks in {@link #provides} and {@link #requires} become bit tests:
+ * a set of types is stored as the IDs of those types and all of their supertypes.
+ */
+final class ContextPlan {
+
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    private static final ClassValue<Integer> IDS = new ClassValue<Integer>() {
+        @Override protected Integer computeValue(Class<?> type) {
+            return NEXT_ID.getAndIncrement();
+        }
+    };
+
+    private static final ClassValue<BitSet> SUPERTYPES = new ClassValue<BitSet>() {
+        @Override protected BitSet computeValue(Class<?> type) {
+            BitSet r = new BitSet();
+            r.set(id(type));
+            Class<?> superclass = type.getSuperclass();
+            if (superclass != null) {
+                r.or(get(superclass));
+            }
+            for (Class<?> iface : type.getInterfaces()) {
+                r.or(get(iface));
+            }
+            return r;
+        }
+    };
+
+    static int id(@NonNull Class<?> type) {
+        return IDS.get(type);
+    }
+
+    private static BitSet closure(Collection<? extends Class<?>> types) {
+        BitSet r = new BitSet();
+        for (Class<?> type : types) {
+            r.or(SUPERTYPES.get(type));
+        }
+        return r;
+    }
+
+    private final List<Class<?>> required;
+    private final BitSet requiredClosure;
+    private final BitSet providedClosure;
+
+    ContextPlan(@NonNull Collection<? extends Class<?>> required, @NonNull Collection<? extends Class<?>> provided) {
+        List<Class<?>> sorted = new ArrayList<>(required);
+        sorted.sort(Comparator.comparing(Class::getName));
+        this.required = List.copyOf(sorted);
+        requiredClosure = closure(required);
+        providedClosure = closure(provided);
+    }
+
+    /**
+     * @return the required types, sorted by name
+     */
+    @NonNull List<Class<?>> getRequired() {
+        return required;
+    }
+
+    /**
+     * Finds all required types which were not found.
+     * @param values the result of {@link StepContext#getAll} on {@link #getRequired}
+     * @return missing types, sorted by name
+     */
+    @NonNull List<Class<?>> missing(@NonNull ContextValues values) {
+        List<Class<?>> r = new ArrayList<>();
+        for (Class<?> type : required) {
+            if (values.get(type) == null) {
+                r.add(type);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * @return true if some provided type is assignable to the given type
+     */
+    boolean provides(@NonNull Class<?> type) {
+        return providedClosure.get(id(type));
+    }
+
+    /**
+     * @return true if some required type is assignable to the given type
+     */
+    boolean requires(@NonNull Class<?> type) {
+        return requiredClosure.get(id(type));
+    }
+
+}
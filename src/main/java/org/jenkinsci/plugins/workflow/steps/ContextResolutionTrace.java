@@ -0,0 +1,241 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Run;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Optional tracing of {@link StepContext#get} and {@link DynamicContext#get} calls,
+ * to find context providers which make steps slow to start.
+ * <p>An implementation of {@link StepContext} should check {@link #isEnabled} and, if so,
+ * {@linkplain #record record} which provider answered each lookup, or use {@link #get(DynamicContext, Class, DynamicContext.DelegatedContext, String, String)}.
+ * Results are aggregated by type and provider, both per {@link Run} (for the most recent {@link #MAX_RUNS} builds) and per {@link StepDescriptor#getFunctionName}.
+ */
+@Restricted(Beta.class)
+public final class ContextResolutionTrace {
+
+    private static volatile boolean enabled = SystemProperties.getBoolean(ContextResolutionTrace.class.getName() + ".enabled");
+
+    static final int MAX_RUNS = Math.max(1, SystemProperties.getInteger(ContextResolutionTrace.class.getName() + ".maxRuns", 50));
+
+    /**
+     * How a lookup ended.
+     */
+    public enum Outcome {
+        /** A value was returned. */
+        VALUE,
+        /** The provider returned null. */
+        NULL,
+        /** {@link DynamicContext.DelegatedContext#get} returned null to break recursion. */
+        RECURSION_CUT
+    }
+
+    private static final Map<String, Trace> BY_RUN = Collections.synchronizedMap(new LinkedHashMap<String, Trace>() {
+        @Override protected boolean removeEldestEntry(Map.Entry<String, Trace> eldest) {
+            return size() > MAX_RUNS;
+        }
+    });
+
+    private static final Map<String, Trace> BY_FUNCTION_NAME = new ConcurrentHashMap<>();
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ContextResolutionTrace.enabled = enabled;
+    }
+
+    /**
+     * Records one lookup, if tracing is enabled.
+     * @param runId the {@link Run#getExternalizableId} of the build, if known
+     * @param functionName the {@link StepDescriptor#getFunctionName} of the step doing the lookup, if known
+     * @param key the type requested
+     * @param provider a description of what answered, such as the class name of a {@link DynamicContext} or of an override
+     * @param nanos how long the lookup took
+     * @param outcome how it ended
+     */
+    public static void record(@CheckForNull String runId, @CheckForNull String functionName, @NonNull Class<?> key, @NonNull String provider, long nanos, @NonNull Outcome outcome) {
+        if (!enabled) {
+            return;
+        }
+        if (runId != null) {
+            Trace trace;
+            synchronized (BY_RUN) {
+                trace = BY_RUN.computeIfAbsent(runId, k -> new Trace());
+            }
+            trace.record(key, provider, nanos, outcome);
+        }
+        if (functionName != null) {
+            BY_FUNCTION_NAME.computeIfAbsent(functionName, k -> new Trace()).record(key, provider, nanos, outcome);
+        }
+    }
+
+    /**
+     * Calls {@link DynamicContext#get(Class, DynamicContext.DelegatedContext)}, recording the lookup if tracing is enabled.
+     * Recursion cut off by the delegated context is not detected here; use {@link #record} with {@link Outcome#RECURSION_CUT} for that.
+     */
+    public static <T> T get(@NonNull DynamicContext dynamicContext, @NonNull Class<T> key, @NonNull DynamicContext.DelegatedContext context, @CheckForNull String runId, @CheckForNull String functionName) throws IOException, InterruptedException {
+        if (!enabled) {
+            return dynamicContext.get(key, context);
+        }
+        long start = System.nanoTime();
+        T t = dynamicContext.get(key, context);
+        record(runId, functionName, key, dynamicContext.getClass().getName(), System.nanoTime() - start, t != null ? Outcome.VALUE : Outcome.NULL);
+        return t;
+    }
+
+    /**
+     * Lookups made by one build.
+     * @return statistics by requested type name, then by provider; empty if none were recorded or the build is no longer tracked
+     */
+    public static @NonNull Map<String, Map<String, Stats>> getForRun(@NonNull Run<?, ?> run) {
+        return getForRun(run.getExternalizableId());
+    }
+
+    /**
+     * Lookups made by one build.
+     * @param runId as in {@link Run#getExternalizableId}
+     * @return statistics by requested type name, then by provider
+     */
+    public static @NonNull Map<String, Map<String, Stats>> getForRun(@NonNull String runId) {
+        Trace trace = BY_RUN.get(runId);
+        return trace != null ? trace.snapshot() : Collections.emptyMap();
+    }
+
+    /**
+     * Lookups made by one kind of step, across all builds.
+     * @return statistics by requested type name, then by provider
+     */
+    public static @NonNull Map<String, Map<String, Stats>> getForFunctionName(@NonNull String functionName) {
+        Trace trace = BY_FUNCTION_NAME.get(functionName);
+        return trace != null ? trace.snapshot() : Collections.emptyMap();
+    }
+
+    /**
+     * @return function names for which lookups have been recorded, sorted
+     */
+    public static @NonNull Iterable<String> getFunctionNames() {
+        return new TreeMap<>(BY_FUNCTION_NAME).keySet();
+    }
+
+    /**
+     * Discards everything recorded so far.
+     */
+    public static void reset() {
+        BY_RUN.clear();
+        BY_FUNCTION_NAME.clear();
+    }
+
+    private static final class Trace {
+        private final Map<String, Map<String, Stats>> stats = new ConcurrentHashMap<>();
+        void record(Class<?> key, String provider, long nanos, Outcome outcome) {
+            stats.computeIfAbsent(key.getName(), k -> new ConcurrentHashMap<>()).computeIfAbsent(provider, k -> new Stats()).record(nanos, outcome);
+        }
+        Map<String, Map<String, Stats>> snapshot() {
+            Map<String, Map<String, Stats>> r = new TreeMap<>();
+            stats.forEach((type, byProvider) -> r.put(type, Collections.unmodifiableMap(new TreeMap<>(byProvider))));
+            return Collections.unmodifiableMap(r);
+        }
+    }
+
+    /**
+     * Statistics for lookups of one type answered by one provider.
+     */
+    public static final class Stats {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nulls = new LongAdder();
+        private final LongAdder recursionCuts = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long nanos, Outcome outcome) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+            if (outcome == Outcome.NULL) {
+                nulls.increment();
+            } else if (outcome == Outcome.RECURSION_CUT) {
+                recursionCuts.increment();
+            }
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * Number of lookups which returned null, not counting {@link #getRecursionCuts}.
+         */
+        public long getNulls() {
+            return nulls.sum();
+        }
+
+        public long getRecursionCuts() {
+            return recursionCuts.sum();
+        }
+
+        /**
+         * Time spent in all lookups, in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * Time spent in the slowest lookup, in nanoseconds.
+         */
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        /**
+         * Average time per lookup, in nanoseconds, or 0 if there were none.
+         */
+        public long getMeanNanos() {
+            long n = getCount();
+            return n == 0 ? 0 : getTotalNanos() / n;
+        }
+
+    }
+
+    private ContextResolutionTrace() {}
+
+}
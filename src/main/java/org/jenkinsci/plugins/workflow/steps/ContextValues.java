@@ -0,0 +1,116 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Result of {@link StepContext#getAll}: the values found for each requested type.
+ */
+@Restricted(Beta.class)
+public final class ContextValues {
+
+    private final Map<Class<?>, Object> values;
+
+    /**
+     * Creates a holder.
+     * @param values for each requested type, the value found, or null if missing; iteration order is retained
+     * @throws IllegalArgumentException if a value is not an instance of its type
+     */
+    public ContextValues(@NonNull Map<? extends Class<?>, ?> values) {
+        Map<Class<?>, Object> copy = new LinkedHashMap<>();
+        for (Map.Entry<? extends Class<?>, ?> entry : values.entrySet()) {
+            Class<?> type = entry.getKey();
+            Object value = entry.getValue();
+            if (value != null && !type.isInstance(value)) {
+                throw new IllegalArgumentException(value + " is not an instance of " + type.getName());
+            }
+            copy.put(type, value);
+        }
+        this.values = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Gets the value found for a type.
+     * @param key one of the requested types
+     * @return the value, or null if it was missing
+     * @throws IllegalArgumentException if this type was not requested
+     */
+    public @CheckForNull <T> T get(@NonNull Class<T> key) {
+        if (!values.containsKey(key)) {
+            throw new IllegalArgumentException(key.getName() + " was not requested");
+        }
+        return key.cast(values.get(key));
+    }
+
+    /**
+     * Gets the value found for a type, which must be present.
+     * @param key one of the requested types
+     * @return the value
+     * @throws MissingContextVariableException if it was missing
+     * @throws IllegalArgumentException if this type was not requested
+     */
+    public @NonNull <T> T require(@NonNull Class<T> key) throws MissingContextVariableException {
+        T value = get(key);
+        if (value == null) {
+            throw new MissingContextVariableException(key, null);
+        }
+        return value;
+    }
+
+    /**
+     * @return all requested types, in request order
+     */
+    public @NonNull Set<Class<?>> getTypes() {
+        return values.keySet();
+    }
+
+    /**
+     * @return requested types for which no value was found, in request order
+     */
+    public @NonNull Set<Class<?>> getMissing() {
+        Set<Class<?>> r = new LinkedHashSet<>();
+        for (Map.Entry<Class<?>, Object> entry : values.entrySet()) {
+            if (entry.getValue() == null) {
+                r.add(entry.getKey());
+            }
+        }
+        return r;
+    }
+
+    @Override public String toString() {
+        return "ContextValues" + values;
+    }
+
+}
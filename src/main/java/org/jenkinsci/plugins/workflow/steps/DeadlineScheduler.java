@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * Shared timer for {@link StepDeadline#onExpiry}.
+ * Registrations are grouped into buckets of {@link #TICK_MILLIS}, all checked by a single periodic task,
+ * rather than scheduling one task per deadline.
+ */
+final class DeadlineScheduler {
+
+    private static final Logger LOGGER = Logger.getLogger(DeadlineScheduler.class.getName());
+
+    static final long TICK_MILLIS = Math.max(10, SystemProperties.getLong(DeadlineScheduler.class.getName() + ".tickMillis", 500L));
+
+    /**
+     * Keyed by tick number, that is, epoch milliseconds divided by {@link #TICK_MILLIS} rounded up.
+     */
+    private static final ConcurrentSkipListMap<Long, Set<Entry>> buckets = new ConcurrentSkipListMap<>();
+
+    private static boolean started;
+
+    private static final class Entry implements StepDeadline.Registration {
+        private final long tick;
+        private final Runnable action;
+        private final AtomicBoolean done = new AtomicBoolean();
+        Entry(long tick, Runnable action) {
+            this.tick = tick;
+            this.action = action;
+        }
+        void fire() {
+            if (done.compareAndSet(false, true)) {
+                try {
+                    action.run();
+                } catch (RuntimeException x) {
+                    LOGGER.log(Level.WARNING, "failed to handle expired deadline", x);
+                }
+            }
+        }
+        @Override public void cancel() {
+            if (done.compareAndSet(false, true)) {
+                Set<Entry> bucket = buckets.get(tick);
+                if (bucket != null) {
+                    bucket.remove(this);
+                }
+            }
+        }
+    }
+
+    static StepDeadline.Registration schedule(long epochMillis, Runnable action) {
+        long tick = Math.floorDiv(epochMillis + TICK_MILLIS - 1, TICK_MILLIS);
+        Entry entry = new Entry(tick, action);
+        Set<Entry> bucket = buckets.computeIfAbsent(tick, k -> ConcurrentHashMap.newKeySet());
+        bucket.add(entry);
+        if (buckets.get(tick) != bucket) {
+            // tick() already took this bucket, and may not have seen the new entry.
+            entry.fire();
+        }
+        start();
+        return entry;
+    }
+
+    private static synchronized void start() {
+        if (!started) {
+            Timer.get().scheduleWithFixedDelay(DeadlineScheduler::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+            started = true;
+        }
+    }
+
+    static void tick() {
+        long now = Math.floorDiv(System.currentTimeMillis(), TICK_MILLIS);
+        ConcurrentNavigableMap<Long, Set<Entry>> expired = buckets.headMap(now, true);
+        for (Map.Entry<Long, Set<Entry>> bucket : expired.entrySet()) {
+            if (!buckets.remove(bucket.getKey(), bucket.getValue())) {
+                continue;
+            }
+            for (Entry entry : bucket.getValue()) {
+                entry.fire();
+            }
+        }
+    }
+
+    private DeadlineScheduler() {}
+
+}
@@ -26,6 +26,7 @@ package org.jenkinsci.plugins.workflow.steps;
 
 import hudson.ExtensionPoint;
 import java.io.IOException;
+import java.util.List;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
@@ -73,6 +74,18 @@ public interface DynamicContext extends ExtensionPoint {
      */
      @CheckForNull <T> T get(Class<T> key, DelegatedContext context) throws IOException, InterruptedException;
 
+    /**
+     * Finds the registered implementations which might provide a given type.
+     * An implementation of {@link StepContext#get} should consult only these, in order,
+     * rather than all extensions: a {@link Typed} implementation is skipped unless its {@link Typed#type} is related to the key.
+     * The index is rebuilt whenever the extension list changes.
+     * @param key a type being requested from {@link StepContext#get}
+     * @return a subset of all {@link DynamicContext} extensions, in extension order
+     */
+    static @NonNull List<DynamicContext> forKey(@NonNull Class<?> key) {
+        return DynamicContextIndex.lookup(key);
+    }
+
     /**
      * A convenience subclass for the common case that you are returning only one kind of object.
      * @param <T> the type of object
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maps each requested type to the {@link DynamicContext} implementations which could possibly provide it.
+ * {@link DynamicContext.Typed} implementations are included only when their {@link DynamicContext.Typed#type}
+ * is a supertype or subtype of the requested key; any other implementation is always included.
+ * Extension order is preserved.
+ */
+final class DynamicContextIndex {
+
+    private static volatile DynamicContextIndex forExtensions;
+
+    static @NonNull List<DynamicContext> lookup(@NonNull Class<?> key) {
+        DynamicContextIndex index = forExtensions;
+        if (index == null) {
+            synchronized (DynamicContextIndex.class) {
+                index = forExtensions;
+                if (index == null) {
+                    ExtensionList<DynamicContext> extensions = ExtensionList.lookup(DynamicContext.class);
+                    extensions.addListener(new ExtensionListListener() {
+                        @Override public void onChange() {
+                            forExtensions = new DynamicContextIndex(extensions);
+                        }
+                    });
+                    index = forExtensions = new DynamicContextIndex(extensions);
+                }
+            }
+        }
+        return index.get(key);
+    }
+
+    private static final class Entry {
+        final DynamicContext context;
+        final Class<?> type;
+        Entry(DynamicContext context) {
+            this.context = context;
+            this.type = context instanceof DynamicContext.Typed ? ((DynamicContext.Typed<?>) context).type() : null;
+        }
+        boolean canProvide(Class<?> key) {
+            return type == null || key.isAssignableFrom(type) || type.isAssignableFrom(key);
+        }
+    }
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    private final ClassValue<List<DynamicContext>> byKey = new ClassValue<List<DynamicContext>>() {
+        @Override protected List<DynamicContext> computeValue(Class<?> key) {
+            List<DynamicContext> r = new ArrayList<>();
+            for (Entry entry : entries) {
+                if (entry.canProvide(key)) {
+                    r.add(entry.context);
+                }
+            }
+            return List.copyOf(r);
+        }
+    };
+
+    DynamicContextIndex(Iterable<? extends DynamicContext> contexts) {
+        for (DynamicContext context : contexts) {
+            entries.add(new Entry(context));
+        }
+    }
+
+    @NonNull List<DynamicContext> get(@NonNull Class<?> key) {
+        return byKey.get(key);
+    }
+
+}
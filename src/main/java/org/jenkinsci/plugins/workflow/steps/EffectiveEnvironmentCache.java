@@ -0,0 +1,332 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import hudson.ExtensionList;
+import hudson.ExtensionListListener;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Remembers recent results of {@link EnvironmentExpander#getEffectiveEnvironment(EnvVars, EnvVars, EnvironmentExpander, StepContext, hudson.model.TaskListener)}.
+ * Only used for expanders which are {@link EnvironmentExpander#isCacheable}.
+ * Each expander softly remembers its last result, which is reused when called again with equal custom and contextual environments
+ * and the same version number, which changes whenever the set of {@link StepEnvironmentContributor}s changes or {@link #invalidate} is called.
+ * {@link StepEnvironmentContributor}s are run on each call, since they may depend on the step,
+ * unless they declare {@link StepEnvironmentContributor#getCacheKeyTypes}, in which case the variables they write are remembered
+ * for each combination of the declared context values.
+ * Builds and nodes are identified by {@link Run#getExternalizableId} and name, and other values are only weakly held.
+ */
+@Restricted(Beta.class)
+public final class EffectiveEnvironmentCache {
+
+    static final int SIZE = Math.max(0, SystemProperties.getInteger(EffectiveEnvironmentCache.class.getName() + ".size", 256));
+
+    private static final AtomicLong version = new AtomicLong();
+    private static final LongAdder hits = new LongAdder();
+    private static final LongAdder misses = new LongAdder();
+    private static volatile boolean listening;
+
+    /**
+     * The last result computed for one expander, softly held in {@link EnvironmentExpander#effectiveEnvironment}.
+     * Inputs are compared by contents, using a hash computed once per call to rule out most mismatches cheaply.
+     */
+    static final class Entry {
+        private final EnvVars customEnvironment;
+        private final EnvVars contextualEnvironment;
+        private final int hash;
+        private final long version;
+        private final EnvVars result;
+        Entry(EnvVars customEnvironment, EnvVars contextualEnvironment, int hash, long version, EnvVars result) {
+            this.customEnvironment = customEnvironment;
+            this.contextualEnvironment = contextualEnvironment;
+            this.hash = hash;
+            this.version = version;
+            this.result = result;
+        }
+        boolean matches(EnvVars customEnvironment, EnvVars contextualEnvironment, int hash, long version) {
+            return this.version == version && this.hash == hash
+                && this.customEnvironment.equals(customEnvironment) && Objects.equals(this.contextualEnvironment, contextualEnvironment);
+        }
+    }
+
+    @FunctionalInterface
+    interface Computation {
+        @NonNull EnvVars compute() throws IOException, InterruptedException;
+    }
+
+    /**
+     * @return a fresh copy of the cached or computed environment
+     */
+    static @NonNull EnvVars get(@NonNull EnvironmentExpander expander, @NonNull EnvVars customEnvironment, @CheckForNull EnvVars contextualEnvironment, @NonNull Computation computation) throws IOException, InterruptedException {
+        if (SIZE == 0) {
+            return computation.compute();
+        }
+        long v = version.get();
+        int hash = 31 * customEnvironment.hashCode() + Objects.hashCode(contextualEnvironment);
+        SoftReference<Entry> ref = expander.effectiveEnvironment;
+        Entry entry = ref != null ? ref.get() : null;
+        if (entry != null && entry.matches(customEnvironment, contextualEnvironment, hash, v)) {
+            hits.increment();
+            return new EnvVars(entry.result);
+        }
+        misses.increment();
+        EnvVars env = computation.compute();
+        expander.effectiveEnvironment = new SoftReference<>(new Entry(new EnvVars(customEnvironment), contextualEnvironment != null ? new EnvVars(contextualEnvironment) : null, hash, v, new EnvVars(env)));
+        return env;
+    }
+
+    private static final LongAdder contributionHits = new LongAdder();
+    private static final LongAdder contributionMisses = new LongAdder();
+
+    private static final Map<List<Object>, Contribution> contributions = new LinkedHashMap<List<Object>, Contribution>(16, 0.75f, true) {
+        @Override protected boolean removeEldestEntry(Map.Entry<List<Object>, Contribution> eldest) {
+            return size() > SIZE;
+        }
+    };
+
+    /**
+     * Writes made by one call to {@link StepEnvironmentContributor#buildEnvironmentFor}, in effect.
+     * A null value means the variable was removed.
+     */
+    private static final class Contribution {
+        private final Map<String, String> writes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        void apply(EnvVars env) {
+            for (Map.Entry<String, String> entry : writes.entrySet()) {
+                if (entry.getValue() == null) {
+                    env.remove(entry.getKey());
+                } else {
+                    env.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * A copy of an environment which records every variable written or removed,
+     * even if the value was unchanged, so that the writes may be replayed on a different environment.
+     * Other ways of modifying the map are not recorded; {@link #contribute} detects those by replaying the writes and comparing.
+     */
+    private static final class RecordingEnvVars extends EnvVars {
+        private static final long serialVersionUID = 1;
+        private final transient Contribution contribution = new Contribution();
+        private final transient boolean recording;
+        RecordingEnvVars(EnvVars env) {
+            super(env);
+            recording = true;
+        }
+        @Override public String put(String key, String value) {
+            String old = super.put(key, value);
+            if (recording) {
+                contribution.writes.put(key, value);
+            }
+            return old;
+        }
+        @Override public void putAll(Map<? extends String, ? extends String> map) {
+            if (recording) {
+                for (Map.Entry<? extends String, ? extends String> entry : map.entrySet()) {
+                    put(entry.getKey(), entry.getValue());
+                }
+            } else {
+                super.putAll(map);
+            }
+        }
+        @Override public String remove(Object key) {
+            String old = super.remove(key);
+            if (recording && key instanceof String) {
+                contribution.writes.put((String) key, null);
+            }
+            return old;
+        }
+    }
+
+    /**
+     * Runs a contributor, or replays its earlier writes if it is {@linkplain StepEnvironmentContributor#getCacheKeyTypes cacheable}
+     * and has already run with the same context values.
+     */
+    static void contribute(@NonNull StepEnvironmentContributor contributor, @NonNull StepContext stepContext, @NonNull EnvVars env, @NonNull TaskListener listener) throws IOException, InterruptedException {
+        Set<Class<?>> keyTypes = contributor.getCacheKeyTypes();
+        if (keyTypes == null || SIZE == 0) {
+            contributor.buildEnvironmentFor(stepContext, env, listener);
+            return;
+        }
+        ContextValues values = stepContext.getAll(keyTypes);
+        List<Object> key = new ArrayList<>();
+        key.add(contributor.getClass().getName());
+        key.add(version.get());
+        for (Class<?> type : values.getTypes()) {
+            key.add(type.getName());
+            key.add(keyFor(values.get(type)));
+        }
+        Contribution contribution;
+        synchronized (contributions) {
+            contribution = contributions.get(key);
+        }
+        if (contribution != null) {
+            contributionHits.increment();
+            contribution.apply(env);
+            return;
+        }
+        contributionMisses.increment();
+        RecordingEnvVars recorded = new RecordingEnvVars(env);
+        contributor.buildEnvironmentFor(stepContext, recorded, listener);
+        contribution = recorded.contribution;
+        contribution.apply(env);
+        if (!env.equals(recorded)) {
+            // modified in some way we could not record
+            env.clear();
+            env.putAll(recorded);
+            return;
+        }
+        synchronized (contributions) {
+            contributions.put(key, contribution);
+        }
+    }
+
+    /**
+     * Represents a context value in a {@link #contributions} key without keeping it in memory after its build or node is gone.
+     */
+    private static @CheckForNull Object keyFor(@CheckForNull Object value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean || value instanceof Enum) {
+            return value;
+        } else if (value instanceof Run) {
+            return List.of(Run.class.getName(), ((Run<?, ?>) value).getExternalizableId());
+        } else if (value instanceof Computer) {
+            return List.of(Computer.class.getName(), ((Computer) value).getName());
+        } else if (value instanceof Node) {
+            return List.of(Node.class.getName(), ((Node) value).getNodeName());
+        } else {
+            return new WeakKey(value);
+        }
+    }
+
+    /**
+     * Matches an equal value for as long as it remains in memory.
+     */
+    private static final class WeakKey extends WeakReference<Object> {
+        private final int hash;
+        WeakKey(Object value) {
+            super(value);
+            hash = value.hashCode();
+        }
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof WeakKey)) {
+                return false;
+            }
+            Object value = get();
+            return value != null && hash == o.hashCode() && value.equals(((WeakKey) o).get());
+        }
+        @Override public int hashCode() {
+            return hash;
+        }
+    }
+
+    /**
+     * Makes sure the cache is dropped if {@link StepEnvironmentContributor}s are added or removed.
+     */
+    static void listenForContributors() {
+        if (listening) {
+            return;
+        }
+        synchronized (EffectiveEnvironmentCache.class) {
+            if (!listening) {
+                ExtensionList.lookup(StepEnvironmentContributor.class).addListener(new ExtensionListListener() {
+                    @Override public void onChange() {
+                        invalidate();
+                    }
+                });
+                listening = true;
+            }
+        }
+    }
+
+    /**
+     * Discards all cached environments.
+     * Should be called if something which affects an expander or contributor changes in a way this cache cannot detect.
+     */
+    public static void invalidate() {
+        version.incrementAndGet();
+        synchronized (contributions) {
+            contributions.clear();
+        }
+    }
+
+    /**
+     * @return a token which changes whenever the cache is invalidated
+     */
+    public static long getVersion() {
+        return version.get();
+    }
+
+    public static long getHits() {
+        return hits.sum();
+    }
+
+    public static long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Number of times a {@link StepEnvironmentContributor} was skipped because its earlier changes could be replayed.
+     */
+    public static long getContributionHits() {
+        return contributionHits.sum();
+    }
+
+    public static long getContributionMisses() {
+        return contributionMisses.sum();
+    }
+
+    public static void resetCounters() {
+        hits.reset();
+        misses.reset();
+        contributionHits.reset();
+        contributionMisses.reset();
+    }
+
+    private EffectiveEnvironmentCache() {}
+
+}
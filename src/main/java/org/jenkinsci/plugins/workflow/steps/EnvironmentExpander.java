@@ -31,10 +31,17 @@ import hudson.model.Run;
 import hudson.model.TaskListener;
 
 import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
@@ -46,6 +53,13 @@ import edu.umd.cs.findbugs.annotations.NonNull;
  */
 public abstract class EnvironmentExpander implements Serializable {
 
+    private static final long serialVersionUID = 6863972504235430599L; // as computed for the original class, so that saved subclasses still load
+
+    /**
+     * Last result of {@link #getEffectiveEnvironment(EnvVars, EnvVars, EnvironmentExpander, StepContext, TaskListener)} if {@link #isCacheable}.
+     */
+    transient volatile SoftReference<EffectiveEnvironmentCache.Entry> effectiveEnvironment;
+
     /**
      * May add environment variables to a context.
      * @param env an original set of environment variables
@@ -62,6 +76,31 @@ public abstract class EnvironmentExpander implements Serializable {
         return Collections.emptySet();
     }
 
+    /**
+     * Like {@link #expand(EnvVars)} but adding to a {@link LayeredEnvironment} rather than modifying a full copy.
+     * Should be overridden by subclasses which can express their changes as overrides;
+     * the default implementation materializes the environment, calls {@link #expand(EnvVars)}, and wraps the result.
+     * @param env an original environment
+     * @return the expanded environment
+     */
+    public @NonNull LayeredEnvironment expand(@NonNull LayeredEnvironment env) throws IOException, InterruptedException {
+        EnvVars vars = env.toEnvVars();
+        expand(vars);
+        return LayeredEnvironment.wrap(vars);
+    }
+
+    /**
+     * Whether {@link #expand} always makes the same changes to the same input,
+     * so that {@link #getEffectiveEnvironment(EnvVars, EnvVars, EnvironmentExpander, StepContext, TaskListener)}
+     * may reuse an earlier result for this object.
+     * Should be overridden to return true by subclasses which hold only fixed values.
+     * @return false by default
+     * @see EffectiveEnvironmentCache
+     */
+    public boolean isCacheable() {
+        return false;
+    }
+
     /**
      * Provides an expander for a constant map of string keys and string values. Supports {@link EnvVars#override(String, String)}
      * behavior, such as {@code PATH+XYZ} overrides.
@@ -85,10 +124,30 @@ public abstract class EnvironmentExpander implements Serializable {
         @Override public void expand(EnvVars env) throws IOException, InterruptedException {
             env.overrideAll(envMap);
         }
+
+        @Override public LayeredEnvironment expand(LayeredEnvironment env) {
+            return env.overrideAll(envMap);
+        }
+
+        /**
+         * Saved as parallel arrays, which are smaller than a {@link HashMap} and can be delta-encoded by later merges.
+         */
+        private Object writeReplace() {
+            List<String> keys = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            FoldedConstantEnvironmentExpander.entries(this, keys, values);
+            return new FoldedConstantEnvironmentExpander(keys.toArray(new String[0]), values.toArray(new String[0]), null, null);
+        }
+
+        @Override public boolean isCacheable() {
+            return true;
+        }
     }
 
     /**
      * Merge together two expanders.
+     * The result is flat: merging an expander which is itself a merge reuses its parts rather than nesting,
+     * and consecutive {@linkplain #constant constant} expanders are folded into one.
      * @param original an original one, such as one already found in a context
      * @param subsequent what you are adding
      * @return an expander which runs them both in that sequence (or, as a convenience, just {@code subsequent} in case {@code original} is null)
@@ -97,8 +156,245 @@ public abstract class EnvironmentExpander implements Serializable {
         if (original == null) {
             return subsequent;
         }
-        return new MergedEnvironmentExpander(original, subsequent);
+        List<EnvironmentExpander> parts = new ArrayList<>();
+        flatten(original, parts);
+        flatten(subsequent, parts);
+        return parts.size() == 1 ? parts.get(0) : new FlatEnvironmentExpander(parts.toArray(new EnvironmentExpander[0]));
+    }
+
+    private static void flatten(EnvironmentExpander expander, List<EnvironmentExpander> parts) {
+        if (expander instanceof FlatEnvironmentExpander) {
+            for (EnvironmentExpander part : ((FlatEnvironmentExpander) expander).parts) {
+                flatten(part, parts);
+            }
+        } else if (expander instanceof MergedEnvironmentExpander) {
+            flatten(((MergedEnvironmentExpander) expander).original, parts);
+            flatten(((MergedEnvironmentExpander) expander).subsequent, parts);
+        } else if (!parts.isEmpty() && FoldedConstantEnvironmentExpander.canFold(parts.get(parts.size() - 1)) && FoldedConstantEnvironmentExpander.canFold(expander)) {
+            parts.set(parts.size() - 1, FoldedConstantEnvironmentExpander.fold(parts.get(parts.size() - 1), expander));
+        } else {
+            parts.add(expander);
+        }
+    }
+
+    /**
+     * Whether a class overrides {@link #expand(LayeredEnvironment)}, rather than materializing the environment.
+     */
+    private static final ClassValue<Boolean> LAYERED = new ClassValue<>() {
+        @Override protected Boolean computeValue(Class<?> type) {
+            try {
+                return type.getMethod("expand", LayeredEnvironment.class).getDeclaringClass() != EnvironmentExpander.class;
+            } catch (NoSuchMethodException x) {
+                throw new AssertionError(x);
+            }
+        }
+    };
+
+    /**
+     * Runs several expanders in sequence.
+     */
+    private static final class FlatEnvironmentExpander extends EnvironmentExpander {
+        private static final long serialVersionUID = 1;
+        private final @NonNull EnvironmentExpander[] parts;
+        private transient volatile Set<String> sensitiveVariables;
+        FlatEnvironmentExpander(EnvironmentExpander[] parts) {
+            this.parts = parts;
+        }
+
+        @Override public void expand(EnvVars env) throws IOException, InterruptedException {
+            for (EnvironmentExpander part : parts) {
+                part.expand(env);
+            }
+        }
+
+        /**
+         * Adds layers for parts which support them, until the first part which does not;
+         * from then on all parts are applied to a single materialized copy.
+         */
+        @Override public LayeredEnvironment expand(LayeredEnvironment env) throws IOException, InterruptedException {
+            EnvVars materialized = null;
+            for (EnvironmentExpander part : parts) {
+                if (materialized == null && LAYERED.get(part.getClass())) {
+                    env = part.expand(env);
+                } else {
+                    if (materialized == null) {
+                        materialized = env.toEnvVars();
+                    }
+                    part.expand(materialized);
+                }
+            }
+            return materialized != null ? LayeredEnvironment.wrap(materialized) : env;
+        }
+
+        @Override public boolean isCacheable() {
+            for (EnvironmentExpander part : parts) {
+                if (!part.isCacheable()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override public Set<String> getSensitiveVariables() {
+            Set<String> r = sensitiveVariables;
+            if (r == null) {
+                Set<String> merged = new HashSet<>();
+                for (EnvironmentExpander part : parts) {
+                    merged.addAll(part.getSensitiveVariables());
+                }
+                r = sensitiveVariables = merged.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(merged);
+            }
+            return r;
+        }
     }
+
+    /**
+     * Several consecutive {@link ConstantEnvironmentExpander}s applied as one list of overrides.
+     * Entries which would be entirely replaced by a later entry are dropped.
+     * <p>The serial form is delta-encoded: when this was folded from an earlier expander,
+     * only a reference to that expander, the indices of its dropped entries, and the new entries are written,
+     * so nested blocks sharing outer expanders do not each save the whole environment.
+     * Variable names are interned when read.
+     */
+    private static final class FoldedConstantEnvironmentExpander extends EnvironmentExpander {
+        private static final long serialVersionUID = 1;
+        private transient @NonNull String[] keys;
+        private transient @NonNull String[] values;
+        /** The expander whose entries come first, if any. */
+        private transient @CheckForNull EnvironmentExpander base;
+        /** Indices of entries from {@link #base} which were dropped. */
+        private transient @CheckForNull int[] removedFromBase;
+
+        FoldedConstantEnvironmentExpander(String[] keys, String[] values, EnvironmentExpander base, int[] removedFromBase) {
+            this.keys = keys;
+            this.values = values;
+            this.base = base;
+            this.removedFromBase = removedFromBase;
+        }
+
+        static boolean canFold(EnvironmentExpander expander) {
+            return expander instanceof ConstantEnvironmentExpander || expander instanceof FoldedConstantEnvironmentExpander;
+        }
+
+        static FoldedConstantEnvironmentExpander fold(EnvironmentExpander first, EnvironmentExpander second) {
+            List<String> keys = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            entries(first, keys, values);
+            int firstCount = keys.size();
+            entries(second, keys, values);
+            // Walk backwards, dropping anything overwritten by a later entry for the same variable.
+            Set<String> overwritten = new HashSet<>();
+            boolean[] kept = new boolean[keys.size()];
+            int keptCount = 0;
+            for (int i = keys.size() - 1; i >= 0; i--) {
+                String key = keys.get(i);
+                String value = values.get(i);
+                boolean absolute = value == null || value.isEmpty() || key.indexOf('+') <= 0;
+                String variable = absolute ? key : key.substring(0, key.indexOf('+'));
+                if (overwritten.contains(variable)) {
+                    continue;
+                }
+                if (absolute) {
+                    overwritten.add(variable);
+                }
+                kept[i] = true;
+                keptCount++;
+            }
+            String[] keptKeys = new String[keptCount];
+            String[] keptValues = new String[keptCount];
+            int removedCount = 0;
+            for (int i = 0, j = 0; i < kept.length; i++) {
+                if (kept[i]) {
+                    keptKeys[j] = keys.get(i);
+                    keptValues[j] = values.get(i);
+                    j++;
+                } else if (i < firstCount) {
+                    removedCount++;
+                }
+            }
+            int[] removed = new int[removedCount];
+            for (int i = 0, j = 0; i < firstCount; i++) {
+                if (!kept[i]) {
+                    removed[j++] = i;
+                }
+            }
+            return new FoldedConstantEnvironmentExpander(keptKeys, keptValues, first, removed);
+        }
+
+        private static void entries(EnvironmentExpander expander, List<String> keys, List<String> values) {
+            if (expander instanceof ConstantEnvironmentExpander) {
+                // same order as EnvVars.overrideAll
+                for (Map.Entry<String, String> entry : ((ConstantEnvironmentExpander) expander).envMap.entrySet()) {
+                    keys.add(entry.getKey());
+                    values.add(entry.getValue());
+                }
+            } else {
+                FoldedConstantEnvironmentExpander folded = (FoldedConstantEnvironmentExpander) expander;
+                keys.addAll(Arrays.asList(folded.keys));
+                values.addAll(Arrays.asList(folded.values));
+            }
+        }
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            out.defaultWriteObject();
+            out.writeObject(base);
+            int fromBase = 0;
+            if (base != null) {
+                out.writeObject(removedFromBase);
+                List<String> baseKeys = new ArrayList<>();
+                entries(base, baseKeys, new ArrayList<>());
+                fromBase = baseKeys.size() - removedFromBase.length;
+            }
+            out.writeInt(keys.length - fromBase);
+            for (int i = fromBase; i < keys.length; i++) {
+                out.writeObject(keys[i]);
+                out.writeObject(values[i]);
+            }
+        }
+
+        private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+            in.defaultReadObject();
+            base = (EnvironmentExpander) in.readObject();
+            List<String> keys = new ArrayList<>();
+            List<String> values = new ArrayList<>();
+            if (base != null) {
+                if (!canFold(base)) {
+                    throw new InvalidObjectException("unexpected base " + base.getClass());
+                }
+                removedFromBase = (int[]) in.readObject();
+                entries(base, keys, values);
+                for (int i = removedFromBase.length - 1; i >= 0; i--) {
+                    keys.remove(removedFromBase[i]);
+                    values.remove(removedFromBase[i]);
+                }
+            }
+            int added = in.readInt();
+            for (int i = 0; i < added; i++) {
+                keys.add(((String) in.readObject()).intern());
+                values.add((String) in.readObject());
+            }
+            this.keys = keys.toArray(new String[0]);
+            this.values = values.toArray(new String[0]);
+        }
+
+        @Override public void expand(EnvVars env) throws IOException, InterruptedException {
+            for (int i = 0; i < keys.length; i++) {
+                env.override(keys[i], values[i]);
+            }
+        }
+
+        @Override public LayeredEnvironment expand(LayeredEnvironment env) {
+            return env.overrideAll(keys, values);
+        }
+
+        @Override public boolean isCacheable() {
+            return true;
+        }
+    }
+
+    /**
+     * No longer created, but may be present in serialized program state.
+     */
     private static class MergedEnvironmentExpander extends EnvironmentExpander {
         private static final long serialVersionUID = 1;
         private final @NonNull EnvironmentExpander original, subsequent;
@@ -107,6 +403,10 @@ public abstract class EnvironmentExpander implements Serializable {
             this.subsequent = subsequent;
         }
 
+        private Object readResolve() {
+            return merge(original, subsequent);
+        }
+
         @Override public void expand(EnvVars env) throws IOException, InterruptedException {
             original.expand(env);
             subsequent.expand(env);
@@ -145,6 +445,7 @@ public abstract class EnvironmentExpander implements Serializable {
      * <li>{@code customEnvironment}
      * <li>{@code contextualEnvironment} (if any)
      * </ol>
+     * If the expander {@link #isCacheable}, its result is reused when called again with equal environments.
      * @param customEnvironment {@link Run#getEnvironment(TaskListener)}, or {@code EnvironmentAction#getEnvironment}
      * @param contextualEnvironment a possible override as per {@link BodyInvoker#withContext} (such as from {@link Computer#getEnvironment} called from {@code PlaceholderExecutable})
      * @param expander a possible expander
@@ -153,6 +454,58 @@ public abstract class EnvironmentExpander implements Serializable {
      * @return the effective environment
      */
     public static @NonNull EnvVars getEffectiveEnvironment(@NonNull EnvVars customEnvironment, @CheckForNull EnvVars contextualEnvironment, @CheckForNull EnvironmentExpander expander, @CheckForNull StepContext stepContext, @NonNull TaskListener listener) throws IOException, InterruptedException {
+        List<StepEnvironmentContributor> contributors;
+        if (stepContext != null) {
+            EffectiveEnvironmentCache.listenForContributors();
+            // apply them in a reverse order so that higher ordinal ones can modify values added by lower ordinal ones
+            contributors = ExtensionList.lookup(StepEnvironmentContributor.class).reverseView();
+        } else {
+            contributors = Collections.emptyList();
+        }
+        EnvVars env;
+        if (expander != null && expander.isCacheable()) {
+            env = EffectiveEnvironmentCache.get(expander, customEnvironment, contextualEnvironment, () -> expand(customEnvironment, contextualEnvironment, expander));
+        } else {
+            env = expand(customEnvironment, contextualEnvironment, expander);
+        }
+        for (StepEnvironmentContributor contributor : contributors) {
+            EffectiveEnvironmentCache.contribute(contributor, stepContext, env, listener);
+        }
+        return env;
+    }
+
+    /**
+     * Like {@link #getEffectiveEnvironment(EnvVars, EnvVars, EnvironmentExpander, StepContext, TaskListener)}
+     * but avoiding copies of the environment where possible.
+     * Call {@link LayeredEnvironment#toEnvVars} only when a full environment is needed, such as to launch a process.
+     * <p>No copy is made only if every part of the expander overrides {@link #expand(LayeredEnvironment)},
+     * as {@link #constant} expanders and {@link #merge}s of them do,
+     * and, when {@code stepContext} is given, no {@link StepEnvironmentContributor} is registered.
+     * Otherwise one full copy is made, as by {@link #getEffectiveEnvironment(EnvVars, EnvVars, EnvironmentExpander, StepContext, TaskListener)},
+     * which will typically be the case in a real Jenkins controller.
+     * @param customEnvironment as in {@link #getEffectiveEnvironment(EnvVars, EnvVars, EnvironmentExpander, StepContext, TaskListener)}; must not be modified afterwards
+     * @param contextualEnvironment as in {@link #getEffectiveEnvironment(EnvVars, EnvVars, EnvironmentExpander, StepContext, TaskListener)}; must not be modified afterwards
+     * @param expander a possible expander
+     * @param stepContext the context of the step being executed
+     * @param listener Connected to the build console. Can be used to report errors.
+     * @return the effective environment
+     */
+    public static @NonNull LayeredEnvironment getEffectiveLayeredEnvironment(@NonNull EnvVars customEnvironment, @CheckForNull EnvVars contextualEnvironment, @CheckForNull EnvironmentExpander expander, @CheckForNull StepContext stepContext, @NonNull TaskListener listener) throws IOException, InterruptedException {
+        if (stepContext != null) {
+            EffectiveEnvironmentCache.listenForContributors();
+            if (!ExtensionList.lookup(StepEnvironmentContributor.class).isEmpty()) {
+                // Contributors need a full copy anyway, so expand into that rather than into layers.
+                return LayeredEnvironment.wrap(getEffectiveEnvironment(customEnvironment, contextualEnvironment, expander, stepContext, listener));
+            }
+        }
+        LayeredEnvironment env = contextualEnvironment != null ? LayeredEnvironment.wrap(contextualEnvironment).overlay(customEnvironment) : LayeredEnvironment.wrap(customEnvironment);
+        if (expander != null) {
+            env = expander.expand(env);
+        }
+        return env;
+    }
+
+    private static @NonNull EnvVars expand(@NonNull EnvVars customEnvironment, @CheckForNull EnvVars contextualEnvironment, @CheckForNull EnvironmentExpander expander) throws IOException, InterruptedException {
         EnvVars env;
         if (contextualEnvironment != null) {
             env = new EnvVars(contextualEnvironment);
@@ -163,12 +516,6 @@ public abstract class EnvironmentExpander implements Serializable {
         if (expander != null) {
             expander.expand(env);
         }
-        if (stepContext != null) {
-            // apply them in a reverse order so that higher ordinal ones can modify values added by lower ordinal ones
-            for (StepEnvironmentContributor contributor: ExtensionList.lookup(StepEnvironmentContributor.class).reverseView()) {
-                contributor.buildEnvironmentFor(stepContext, env, listener);
-            }
-        }
         return env;
     }
 }
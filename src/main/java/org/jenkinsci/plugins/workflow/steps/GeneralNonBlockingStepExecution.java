@@ -28,6 +28,9 @@ import hudson.security.ACL;
 import hudson.security.ACLContext;
 import java.util.concurrent.Callable;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jenkins.model.Jenkins;
 import org.acegisecurity.Authentication;
@@ -41,6 +44,8 @@ public abstract class GeneralNonBlockingStepExecution extends StepExecution {
 
     private static final long serialVersionUID = 1L;
 
+    private static final Logger LOGGER = Logger.getLogger(GeneralNonBlockingStepExecution.class.getName());
+
     private transient volatile Future<?> task;
     private String threadName;
     private transient volatile Throwable stopCause;
@@ -63,6 +68,7 @@ public abstract class GeneralNonBlockingStepExecution extends StepExecution {
      * Initiate background work that should not block the CPS VM thread.
      * Call this from a CPS VM thread, such as from {@link #start} or {@link BodyExecutionCallback#onSuccess}.
      * The block may finish by calling {@link BodyInvoker#start}, {@link StepContext#onSuccess}, etc.
+     * If a {@link StepDeadline} is in effect, the step is {@linkplain #stop stopped} if it passes while the block is running.
      * @param block some code to run in a utility thread
      */
     protected final void run(Block block) {
@@ -70,7 +76,28 @@ public abstract class GeneralNonBlockingStepExecution extends StepExecution {
             return;
         }
         final Authentication auth = Jenkins.getAuthentication();
-        task = SynchronousNonBlockingStepExecution.getExecutorService().submit(() -> {
+        StepDeadline deadline = getContext().getDeadline();
+        StepDeadline.Registration expiry = deadline != null ? deadline.onExpiry(() -> stopForDeadline(deadline)) : null;
+        try {
+            task = submit(auth, block, expiry);
+        } catch (RejectedExecutionException x) {
+            if (expiry != null) {
+                expiry.cancel();
+            }
+            getContext().onFailure(x);
+        }
+    }
+
+    private void stopForDeadline(StepDeadline deadline) {
+        try {
+            stop(deadline.exceeded());
+        } catch (Exception x) {
+            LOGGER.log(Level.WARNING, "failed to stop " + this + " after its deadline", x);
+        }
+    }
+
+    private Future<?> submit(Authentication auth, Block block, StepDeadline.Registration expiry) {
+        return NonBlockingStepExecutors.submit(this, () -> {
             threadName = Thread.currentThread().getName();
             try {
                 try (ACLContext acl = ACL.as(auth)) {
@@ -85,6 +112,9 @@ public abstract class GeneralNonBlockingStepExecution extends StepExecution {
             } finally {
                 threadName = null;
                 task = null;
+                if (expiry != null) {
+                    expiry.cancel();
+                }
             }
         });
     }
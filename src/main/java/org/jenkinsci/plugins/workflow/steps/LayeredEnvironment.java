@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import hudson.Platform;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.TreeMap;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * An immutable environment built up from layers, so that nested blocks can each add a few variables
+ * without copying the whole map.
+ * Each layer records only its changes (with removals as null values), and lookups consult layers from the top down.
+ * When more than {@link #MAX_DEPTH} layers accumulate they are squashed into one.
+ * Use {@link #toEnvVars} only when a real {@link EnvVars} is needed, such as to launch a process.
+ * <p>Like {@link EnvVars}, keys are case-insensitive.
+ * @see EnvironmentExpander#expand(LayeredEnvironment)
+ * @see EnvironmentExpander#getEffectiveLayeredEnvironment
+ */
+@Restricted(Beta.class)
+public final class LayeredEnvironment {
+
+    static final int MAX_DEPTH = Math.max(1, SystemProperties.getInteger(LayeredEnvironment.class.getName() + ".maxDepth", 8));
+
+    private final @CheckForNull LayeredEnvironment parent;
+    private final @NonNull Map<String, String> layer;
+    private final @CheckForNull Platform platform;
+    private final int depth;
+
+    private LayeredEnvironment(@CheckForNull LayeredEnvironment parent, @NonNull Map<String, String> layer, @CheckForNull Platform platform, int depth) {
+        this.parent = parent;
+        this.layer = layer;
+        this.platform = platform;
+        this.depth = depth;
+    }
+
+    /**
+     * Uses an existing environment as the bottom layer, without copying it.
+     * @param base an environment which must not be modified afterwards
+     */
+    public static @NonNull LayeredEnvironment wrap(@NonNull EnvVars base) {
+        return new LayeredEnvironment(null, base, base.getPlatform(), 0);
+    }
+
+    /**
+     * Adds a layer of values, as if by {@link Map#putAll}, without copying them.
+     * @param vars an environment which must not be modified afterwards
+     * @return a new environment
+     */
+    public @NonNull LayeredEnvironment overlay(@NonNull EnvVars vars) {
+        return vars.isEmpty() ? this : push(vars);
+    }
+
+    /**
+     * Looks up a variable.
+     * @return its value, or null if undefined
+     */
+    public @CheckForNull String get(@NonNull String key) {
+        for (LayeredEnvironment e = this; e != null; e = e.parent) {
+            if (e.layer.containsKey(key)) {
+                return e.layer.get(key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Like {@link EnvVars#override}.
+     * @return a new environment
+     */
+    public @NonNull LayeredEnvironment override(@NonNull String key, @CheckForNull String value) {
+        return overrideAll(new String[] {key}, new String[] {value});
+    }
+
+    /**
+     * Like {@link EnvVars#overrideAll}.
+     * @return a new environment, or this one if there were no changes
+     */
+    public @NonNull LayeredEnvironment overrideAll(@NonNull Map<String, String> all) {
+        String[] keys = new String[all.size()];
+        String[] values = new String[keys.length];
+        int i = 0;
+        for (Map.Entry<String, String> entry : all.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            i++;
+        }
+        return overrideAll(keys, values);
+    }
+
+    /**
+     * Applies {@link EnvVars#override} for each pair in sequence, recording the changes in a single new layer.
+     */
+    @NonNull LayeredEnvironment overrideAll(@NonNull String[] keys, @NonNull String[] values) {
+        Map<String, String> changes = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (int i = 0; i < keys.length; i++) {
+            String key = keys[i];
+            String value = values[i];
+            if (value == null || value.isEmpty()) {
+                changes.put(key, null);
+                continue;
+            }
+            int idx = key.indexOf('+');
+            if (idx > 0) {
+                String realKey = key.substring(0, idx);
+                String v = changes.containsKey(realKey) ? changes.get(realKey) : get(realKey);
+                char separator = platform == null ? File.pathSeparatorChar : platform.pathSeparator;
+                changes.put(realKey, v == null ? value : value + separator + v);
+            } else {
+                changes.put(key, value);
+            }
+        }
+        return changes.isEmpty() ? this : push(changes);
+    }
+
+    private LayeredEnvironment push(Map<String, String> changes) {
+        if (depth + 1 > MAX_DEPTH) {
+            return wrap(new LayeredEnvironment(this, changes, platform, depth + 1).toEnvVars());
+        }
+        return new LayeredEnvironment(this, changes, platform, depth + 1);
+    }
+
+    /**
+     * @return the number of layers above the bottom one
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Copies all layers into a new mutable environment.
+     */
+    public @NonNull EnvVars toEnvVars() {
+        Deque<LayeredEnvironment> layers = new ArrayDeque<>();
+        for (LayeredEnvironment e = this; e != null; e = e.parent) {
+            layers.push(e);
+        }
+        EnvVars r = new EnvVars();
+        if (platform != null) {
+            r.setPlatform(platform);
+        }
+        for (LayeredEnvironment e : layers) {
+            for (Map.Entry<String, String> entry : e.layer.entrySet()) {
+                if (entry.getValue() == null) {
+                    r.remove(entry.getKey());
+                } else {
+                    r.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return r;
+    }
+
+    @Override public String toString() {
+        return "LayeredEnvironment[depth=" + depth + "]";
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.io.IOException;
+import java.io.Serializable;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * A context override which is computed only when first requested, and then remembered.
+ * Created by {@link BodyInvoker#withLazyContext}.
+ * <p>An implementation of {@link StepContext#get} which supports lazy overrides should,
+ * when it encounters one of these among its overrides while looking for a given key,
+ * treat it as it would an override of type {@link #getType} and return {@link #get(Class)}.
+ * <p>The computed value is not serialized, so it will be computed again after a restart.
+ * @param <T> the type of object provided
+ */
+@Restricted(Beta.class)
+public final class LazyContext<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Computes an override.
+     * Typically it would look up the value in the enclosing context and merge it, as described in {@link BodyInvoker#withContext}.
+     * @param <T> the type of object provided
+     */
+    @FunctionalInterface
+    public interface Factory<T> extends Serializable {
+        @CheckForNull T create() throws IOException, InterruptedException;
+    }
+
+    private final @NonNull Class<T> type;
+    private final @NonNull Factory<? extends T> factory;
+    private transient volatile boolean computed;
+    private transient T value;
+
+    public LazyContext(@NonNull Class<T> type, @NonNull Factory<? extends T> factory) {
+        this.type = type;
+        this.factory = factory;
+    }
+
+    /**
+     * @return the type of object provided
+     */
+    public @NonNull Class<T> getType() {
+        return type;
+    }
+
+    /**
+     * Checks whether this override might provide a value for a given key, without computing it.
+     * @param key as per {@link StepContext#get}
+     * @return true if the key is a supertype or subtype of {@link #getType}
+     */
+    public boolean mightProvide(@NonNull Class<?> key) {
+        return key.isAssignableFrom(type) || type.isAssignableFrom(key);
+    }
+
+    /**
+     * Gets the value, computing it if this is the first request.
+     * @return the value, possibly null
+     * @throws IOException if the value could not be computed; it will be computed again on the next request
+     * @throws InterruptedException if the value could not be computed; it will be computed again on the next request
+     */
+    public @CheckForNull T get() throws IOException, InterruptedException {
+        if (!computed) {
+            synchronized (this) {
+                if (!computed) {
+                    value = factory.create();
+                    computed = true;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Gets the value for a given key, as in {@link DynamicContext.Typed}.
+     * @param key as per {@link StepContext#get}
+     * @return the value if it is an instance of the key, else null
+     */
+    public @CheckForNull <U> U get(@NonNull Class<U> key) throws IOException, InterruptedException {
+        if (!mightProvide(key)) {
+            return null;
+        }
+        T t = get();
+        return key.isInstance(t) ? key.cast(t) : null;
+    }
+
+    @Override public String toString() {
+        return "LazyContext[" + type.getName() + "]";
+    }
+
+}
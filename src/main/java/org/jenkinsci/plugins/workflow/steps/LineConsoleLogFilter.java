@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.console.ConsoleLogFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * May be implemented by a {@link ConsoleLogFilter} which works one line at a time.
+ * When several such filters are combined with {@link BodyInvoker#mergeConsoleLogFilters},
+ * consecutive ones are run as a single stage: the log is split into lines once,
+ * and each line passes through every filter in one loop using shared buffers,
+ * rather than each filter wrapping its own {@link OutputStream}.
+ * The filter's own {@link ConsoleLogFilter#decorateLogger} is still used when it is not merged.
+ */
+@Restricted(Beta.class)
+public interface LineConsoleLogFilter {
+
+    /**
+     * Transforms individual lines of one log stream.
+     */
+    @FunctionalInterface
+    interface Transformer {
+        /**
+         * Transforms one line.
+         * @param line a buffer which must not be retained
+         * @param len the number of bytes in the line, including any line terminator
+         * @param out where to write the transformed line
+         */
+        void transform(@NonNull byte[] line, int len, @NonNull OutputStream out) throws IOException;
+    }
+
+    /**
+     * Prepares to transform one log stream.
+     * @return a transformer, which will be called from one thread at a time
+     */
+    @NonNull Transformer newTransformer() throws IOException, InterruptedException;
+
+}
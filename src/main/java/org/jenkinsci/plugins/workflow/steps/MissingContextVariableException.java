@@ -4,7 +4,6 @@ import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
 
 /**
  * Indicates that a required context was not available.
@@ -17,6 +16,7 @@ import java.util.Set;
  */
 public class MissingContextVariableException extends Exception {
     private final @NonNull Class<?> type;
+    private final @CheckForNull List<Class<?>> types;
     private final @CheckForNull String functionName;
 
     /** @deprecated use {@link #MissingContextVariableException(Class, StepDescriptor)} */
@@ -26,16 +26,47 @@ public class MissingContextVariableException extends Exception {
     }
 
     public MissingContextVariableException(@NonNull Class<?> type, @CheckForNull StepDescriptor d) {
-        this.type = type;
+        this(List.of(type), d);
+    }
+
+    /**
+     * Reports several missing types at once.
+     * @param types a nonempty list of missing types
+     * @param d the step which needed them, if known
+     */
+    public MissingContextVariableException(@NonNull List<? extends Class<?>> types, @CheckForNull StepDescriptor d) {
+        if (types.isEmpty()) {
+            throw new IllegalArgumentException("no missing types");
+        }
+        this.type = types.get(0);
+        this.types = List.copyOf(types);
         functionName = d != null ? d.getFunctionName() : null;
     }
 
+    /**
+     * @return the first of {@link #getTypes}
+     */
     public Class<?> getType() {
         return type;
     }
 
+    /**
+     * @return all missing types
+     */
+    public @NonNull List<Class<?>> getTypes() {
+        return types != null ? types : List.of(type);
+    }
+
     @Override public String getMessage() {
-        StringBuilder b = new StringBuilder("Required context ").append(type).append(" is missing");
+        List<Class<?>> missing = getTypes();
+        StringBuilder b = new StringBuilder("Required context ");
+        for (int i = 0; i < missing.size(); i++) {
+            if (i > 0) {
+                b.append(i == missing.size() - 1 ? " and " : ", ");
+            }
+            b.append(missing.get(i));
+        }
+        b.append(missing.size() == 1 ? " is missing" : " are missing");
         boolean first = true;
         for (StepDescriptor p : getProviders()) {
             if (first) {
@@ -65,21 +96,16 @@ public class MissingContextVariableException extends Exception {
     public @NonNull List<StepDescriptor> getProviders() {
         List<StepDescriptor> r = new ArrayList<>();
         for (StepDescriptor sd : StepDescriptor.all()) {
-            if (isIn(sd.getProvidedContext()) && !isIn(sd.getRequiredContext()))
-                r.add(sd);
+            ContextPlan plan = sd.getContextPlan();
+            for (Class<?> t : getTypes()) {
+                if (plan.provides(t) && !plan.requires(t)) {
+                    r.add(sd);
+                    break;
+                }
+            }
         }
         return r;
     }
 
-    /**
-     * Is type in the given set, in consideration of the subtyping relationship?
-     */
-    private boolean isIn(Set<? extends Class<?>> classes) {
-        for (Class<?> t : classes)
-            if (type.isAssignableFrom(t))
-                return true;
-        return false;
-    }
-
     private static final long serialVersionUID = 1L;
 }
@@ -0,0 +1,451 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.util.ClassLoaderSanityThreadFactory;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Thread pool running the background parts of {@link SynchronousNonBlockingStepExecution} and {@link GeneralNonBlockingStepExecution}.
+ * <p>By default this behaves like an unbounded cached thread pool.
+ * It may be bounded using system properties named after this class
+ * ({@code corePoolSize}, {@code maximumPoolSize}, {@code queueCapacity} and {@code rejectionPolicy}),
+ * or reconfigured at runtime, for example from the script console, using {@link #configure}.
+ * <p>With a {@code queueCapacity} of zero, tasks are handed off directly to a thread, and threads beyond {@code corePoolSize}
+ * are created up to {@code maximumPoolSize}.
+ * With a positive capacity, tasks wait in the queue once {@code corePoolSize} threads are busy,
+ * and extra threads are only created once the queue is full;
+ * so in that case {@code corePoolSize} should be set to the desired concurrency.
+ * Once both the threads and the queue are exhausted, the {@link RejectionPolicy} applies.
+ * <p>Alternatively, on Java 21 and later, the {@code virtualThreads} property or {@link #setVirtualThreads}
+ * runs each task in its own virtual thread, in which case the sizing above does not apply.
+ * This suits steps which mostly wait on remoting or network I/O;
+ * code which blocks while holding a monitor will pin its carrier thread.
+ * <p>Independently of the executor, each kind of step may be given a {@link StepBulkhead}
+ * limiting how many of its tasks run or wait at once, using {@link #configureBulkhead}, {@link #configureDefaultBulkhead},
+ * or the {@code bulkheads} property (for example {@code sh=20:100,archiveArtifacts=4:0})
+ * and {@code defaultBulkhead} property (for example {@code 50:200}).
+ * @see NonBlockingStepMetrics
+ */
+@Restricted(Beta.class)
+public final class NonBlockingStepExecutors {
+
+    private static final Logger LOGGER = Logger.getLogger(NonBlockingStepExecutors.class.getName());
+
+    /**
+     * What to do with a background task when the pool and its queue are both full.
+     */
+    public enum RejectionPolicy {
+        /**
+         * Fail the step with a {@link RejectedExecutionException}.
+         */
+        FAIL,
+        /**
+         * Run the task in the submitting thread, typically the CPS VM thread, as a {@link SynchronousStepExecution} would.
+         */
+        CALLER_RUNS
+    }
+
+    private static final String PREFIX = NonBlockingStepExecutors.class.getName() + ".";
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private static int corePoolSize = SystemProperties.getInteger(PREFIX + "corePoolSize", 0);
+    private static int maximumPoolSize = SystemProperties.getInteger(PREFIX + "maximumPoolSize", Integer.MAX_VALUE);
+    private static int queueCapacity = SystemProperties.getInteger(PREFIX + "queueCapacity", 0);
+    private static volatile RejectionPolicy rejectionPolicy = parseRejectionPolicy(SystemProperties.getString(PREFIX + "rejectionPolicy"));
+
+    private static boolean virtualThreads = SystemProperties.getBoolean(PREFIX + "virtualThreads");
+
+    private static ExecutorService executorService;
+    private static ExecutorService override;
+
+    private static final Map<String, StepBulkhead> bulkheads = new ConcurrentHashMap<>();
+    private static final Map<String, StepBulkhead> defaultBulkheads = new ConcurrentHashMap<>();
+    private static volatile int defaultBulkheadMaxConcurrent;
+    private static volatile int defaultBulkheadMaxQueued;
+
+    static {
+        String spec = SystemProperties.getString(PREFIX + "bulkheads");
+        if (spec != null) {
+            for (String entry : spec.split(",")) {
+                String[] nameAndLimits = entry.trim().split("=", 2);
+                if (nameAndLimits.length == 2) {
+                    int[] limits = parseLimits(nameAndLimits[1]);
+                    if (limits != null) {
+                        configureBulkhead(nameAndLimits[0].trim(), limits[0], limits[1]);
+                        continue;
+                    }
+                }
+                LOGGER.warning(() -> "ignoring malformed bulkhead specification: " + entry);
+            }
+        }
+        String defaultSpec = SystemProperties.getString(PREFIX + "defaultBulkhead");
+        if (defaultSpec != null) {
+            int[] limits = parseLimits(defaultSpec);
+            if (limits != null) {
+                configureDefaultBulkhead(limits[0], limits[1]);
+            } else {
+                LOGGER.warning(() -> "ignoring malformed default bulkhead specification: " + defaultSpec);
+            }
+        }
+    }
+
+    private static @NonNull RejectionPolicy parseRejectionPolicy(@CheckForNull String spec) {
+        if (spec != null) {
+            try {
+                return RejectionPolicy.valueOf(spec.trim());
+            } catch (IllegalArgumentException x) {
+                LOGGER.warning(() -> "ignoring malformed rejection policy: " + spec);
+            }
+        }
+        return RejectionPolicy.FAIL;
+    }
+
+    private static @CheckForNull int[] parseLimits(String spec) {
+        String[] parts = spec.trim().split(":", 2);
+        try {
+            return new int[] {Integer.parseInt(parts[0].trim()), parts.length == 2 ? Integer.parseInt(parts[1].trim()) : 0};
+        } catch (NumberFormatException x) {
+            return null;
+        }
+    }
+
+    /**
+     * Gets the executor to which background work should be submitted.
+     */
+    static synchronized @NonNull ExecutorService get() {
+        if (override != null) {
+            return override;
+        }
+        if (executorService == null) {
+            executorService = virtualThreads ? createVirtual() : create();
+        }
+        return executorService;
+    }
+
+    /**
+     * Submits background work on behalf of a step, subject to any {@link StepBulkhead} for its kind.
+     * @throws RejectedExecutionException if the bulkhead or the executor is saturated
+     */
+    static @NonNull Future<?> submit(@NonNull StepExecution execution, @NonNull Runnable task) {
+        return submit(functionName(execution), task);
+    }
+
+    private static @NonNull Future<?> submit(@NonNull String functionName, @NonNull Runnable task) {
+        Runnable instrumented = NonBlockingStepMetrics.instrument(functionName, task);
+        StepBulkhead bulkhead = bulkheadFor(functionName);
+        try {
+            return bulkhead != null ? bulkhead.submit(instrumented) : get().submit(instrumented);
+        } catch (RejectedExecutionException x) {
+            NonBlockingStepMetrics.rejected(functionName);
+            throw x;
+        }
+    }
+
+    /**
+     * Like {@link #submit(StepExecution, Runnable)} but never runs the task in the calling thread,
+     * even under {@link RejectionPolicy#CALLER_RUNS}, since the caller may be the CPS VM thread.
+     * @param functionName a key for {@link StepBulkhead}s and {@link NonBlockingStepMetrics}
+     * @throws RejectedExecutionException if the bulkhead or the executor is saturated
+     */
+    static @NonNull Future<?> submitInBackground(@NonNull String functionName, @NonNull Runnable task) {
+        IN_BACKGROUND.set(true);
+        try {
+            return submit(functionName, task);
+        } finally {
+            IN_BACKGROUND.remove();
+        }
+    }
+
+    /**
+     * Set while submitting from {@link #submitInBackground}, so that {@link Rejection} ignores {@link RejectionPolicy#CALLER_RUNS}.
+     */
+    private static final ThreadLocal<Boolean> IN_BACKGROUND = new ThreadLocal<>();
+
+    private static @CheckForNull StepBulkhead bulkheadFor(String functionName) {
+        if (bulkheads.isEmpty() && defaultBulkheadMaxConcurrent == 0) {
+            return null;
+        }
+        StepBulkhead bulkhead = bulkheads.get(functionName);
+        if (bulkhead == null && defaultBulkheadMaxConcurrent > 0) {
+            bulkhead = defaultBulkheads.computeIfAbsent(functionName, k -> new StepBulkhead(k, defaultBulkheadMaxConcurrent, defaultBulkheadMaxQueued, NonBlockingStepExecutors::get));
+        }
+        return bulkhead;
+    }
+
+    /**
+     * The key used for bulkheads and metrics: {@link StepExecution#getFunctionName}, or else the execution class name.
+     */
+    static @NonNull String functionName(@NonNull StepExecution execution) {
+        String name = execution.getFunctionName();
+        return name != null ? name : execution.getClass().getName();
+    }
+
+    private static ExecutorService createVirtual() {
+        try {
+            // Thread.ofVirtual().factory() and Executors.newThreadPerTaskExecutor, called reflectively until the baseline requires Java 21
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            ThreadFactory factory = (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+            return (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(null,
+                new NamingThreadFactory(new ClassLoaderSanityThreadFactory(factory), SynchronousNonBlockingStepExecution.class.getName()));
+        } catch (ReflectiveOperationException x) {
+            LOGGER.log(Level.WARNING, "Virtual threads are not available in Java " + Runtime.version().feature() + "; falling back to a thread pool", x);
+            virtualThreads = false;
+            return create();
+        }
+    }
+
+    private static ThreadPoolExecutor create() {
+        BlockingQueue<Runnable> queue = queueCapacity == 0 ? new SynchronousQueue<>() : new LinkedBlockingQueue<>(queueCapacity);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(corePoolSize, maximumPoolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, queue,
+            new NamingThreadFactory(new ClassLoaderSanityThreadFactory(new DaemonThreadFactory()), SynchronousNonBlockingStepExecution.class.getName()),
+            new Rejection());
+        if (corePoolSize > 0) {
+            pool.allowCoreThreadTimeOut(true);
+        }
+        return pool;
+    }
+
+    /**
+     * Changes the sizing of the pool.
+     * Thread counts and the rejection policy apply immediately.
+     * If the queue capacity changes, a new pool is created for subsequent tasks,
+     * while the old one finishes any running or queued tasks and then terminates.
+     * @param corePoolSize number of threads to keep when busy; idle threads still time out
+     * @param maximumPoolSize maximum number of threads, at least {@code corePoolSize} and at least one
+     * @param queueCapacity number of tasks which may wait for a thread, or zero for direct handoff
+     * @param rejectionPolicy what to do when all threads are busy and the queue is full
+     * @throws IllegalArgumentException if the sizes are inconsistent
+     */
+    public static synchronized void configure(int corePoolSize, int maximumPoolSize, int queueCapacity, @NonNull RejectionPolicy rejectionPolicy) {
+        if (corePoolSize < 0 || maximumPoolSize < 1 || maximumPoolSize < corePoolSize || queueCapacity < 0) {
+            throw new IllegalArgumentException("invalid pool sizing: corePoolSize=" + corePoolSize + " maximumPoolSize=" + maximumPoolSize + " queueCapacity=" + queueCapacity);
+        }
+        boolean queueChanged = queueCapacity != NonBlockingStepExecutors.queueCapacity;
+        NonBlockingStepExecutors.corePoolSize = corePoolSize;
+        NonBlockingStepExecutors.maximumPoolSize = maximumPoolSize;
+        NonBlockingStepExecutors.queueCapacity = queueCapacity;
+        NonBlockingStepExecutors.rejectionPolicy = rejectionPolicy;
+        if (!(executorService instanceof ThreadPoolExecutor)) {
+            return;
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) executorService;
+        if (queueChanged) {
+            pool.shutdown();
+            executorService = create();
+        } else {
+            // ThreadPoolExecutor insists that core ≤ maximum after each call, so order the calls accordingly.
+            if (maximumPoolSize >= pool.getCorePoolSize()) {
+                pool.setMaximumPoolSize(maximumPoolSize);
+                pool.setCorePoolSize(corePoolSize);
+            } else {
+                pool.setCorePoolSize(corePoolSize);
+                pool.setMaximumPoolSize(maximumPoolSize);
+            }
+            pool.allowCoreThreadTimeOut(corePoolSize > 0);
+        }
+        LOGGER.log(Level.CONFIG, "reconfigured to corePoolSize={0} maximumPoolSize={1} queueCapacity={2} rejectionPolicy={3}", new Object[] {corePoolSize, maximumPoolSize, queueCapacity, rejectionPolicy});
+    }
+
+    /**
+     * Switches between a virtual-thread-per-task executor and the thread pool.
+     * Tasks already submitted keep running where they are.
+     * Has no effect on Java versions without virtual threads, other than a warning.
+     * @param virtualThreads true to run each task in a new virtual thread
+     */
+    public static synchronized void setVirtualThreads(boolean virtualThreads) {
+        if (virtualThreads == NonBlockingStepExecutors.virtualThreads) {
+            return;
+        }
+        NonBlockingStepExecutors.virtualThreads = virtualThreads;
+        if (executorService != null) {
+            executorService.shutdown();
+            executorService = null;
+        }
+    }
+
+    public static synchronized boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Replaces the built-in pool with a custom executor, or restores the built-in pool.
+     * The caller is responsible for the lifecycle of any executor passed in.
+     * @param executor a custom executor, or null to go back to the built-in pool
+     */
+    public static synchronized void setExecutorService(@CheckForNull ExecutorService executor) {
+        override = executor;
+    }
+
+    /**
+     * Limits the background work of one kind of step, or changes the limits of an existing bulkhead.
+     * @param functionName a {@link StepDescriptor#getFunctionName}
+     * @param maxConcurrent maximum number of tasks of this kind running at once, at least one
+     * @param maxQueued maximum number of further tasks waiting for a slot; zero to fail fast
+     * @throws IllegalArgumentException if the sizes are invalid
+     */
+    public static void configureBulkhead(@NonNull String functionName, int maxConcurrent, int maxQueued) {
+        StepBulkhead bulkhead = bulkheads.get(functionName);
+        if (bulkhead == null) {
+            bulkhead = bulkheads.putIfAbsent(functionName, new StepBulkhead(functionName, maxConcurrent, maxQueued, NonBlockingStepExecutors::get));
+            if (bulkhead == null) {
+                return;
+            }
+        }
+        bulkhead.setLimits(maxConcurrent, maxQueued);
+    }
+
+    /**
+     * Creates a bulkhead for some kind of internal work unless one has already been configured.
+     */
+    static void ensureBulkhead(@NonNull String key, int maxConcurrent, int maxQueued) {
+        bulkheads.computeIfAbsent(key, k -> new StepBulkhead(k, maxConcurrent, maxQueued, NonBlockingStepExecutors::get));
+    }
+
+    /**
+     * Removes the bulkhead for one kind of step.
+     * Tasks already queued in it still run as slots free up.
+     * @param functionName a {@link StepDescriptor#getFunctionName}
+     */
+    public static void removeBulkhead(@NonNull String functionName) {
+        bulkheads.remove(functionName);
+    }
+
+    /**
+     * Sets the limits applied to each kind of step which has no bulkhead of its own.
+     * @param maxConcurrent as in {@link #configureBulkhead}, or zero to disable default bulkheads
+     * @param maxQueued as in {@link #configureBulkhead}
+     */
+    public static synchronized void configureDefaultBulkhead(int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 0 || maxQueued < 0) {
+            throw new IllegalArgumentException("invalid default bulkhead sizing: maxConcurrent=" + maxConcurrent + " maxQueued=" + maxQueued);
+        }
+        defaultBulkheadMaxConcurrent = maxConcurrent;
+        defaultBulkheadMaxQueued = maxQueued;
+        if (maxConcurrent == 0) {
+            defaultBulkheads.clear();
+        } else {
+            for (StepBulkhead bulkhead : defaultBulkheads.values()) {
+                bulkhead.setLimits(maxConcurrent, maxQueued);
+            }
+        }
+    }
+
+    /**
+     * Gets the bulkhead currently in effect for one kind of step, if any.
+     * @param functionName a {@link StepDescriptor#getFunctionName}
+     */
+    public static @CheckForNull StepBulkhead getBulkhead(@NonNull String functionName) {
+        StepBulkhead bulkhead = bulkheads.get(functionName);
+        return bulkhead != null ? bulkhead : defaultBulkheads.get(functionName);
+    }
+
+    /**
+     * Lists all bulkheads currently in effect, whether configured explicitly or created from the defaults.
+     */
+    public static @NonNull List<StepBulkhead> getBulkheads() {
+        List<StepBulkhead> r = new ArrayList<>(bulkheads.values());
+        for (StepBulkhead bulkhead : defaultBulkheads.values()) {
+            if (!bulkheads.containsKey(bulkhead.getFunctionName())) {
+                r.add(bulkhead);
+            }
+        }
+        return r;
+    }
+
+    public static synchronized int getCorePoolSize() {
+        return corePoolSize;
+    }
+
+    public static synchronized int getMaximumPoolSize() {
+        return maximumPoolSize;
+    }
+
+    public static synchronized int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public static @NonNull RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /**
+     * Number of threads currently in the built-in pool, or -1 if using virtual threads or a custom executor.
+     * @see NonBlockingStepMetrics
+     */
+    public static synchronized int getPoolSize() {
+        return override == null && executorService instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executorService).getPoolSize() : -1;
+    }
+
+    /**
+     * Largest number of threads ever simultaneously in the built-in pool, or -1 if using virtual threads or a custom executor.
+     */
+    public static synchronized int getLargestPoolSize() {
+        return override == null && executorService instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executorService).getLargestPoolSize() : -1;
+    }
+
+    private static final class Rejection implements RejectedExecutionHandler {
+        @Override public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+            if (executor.isShutdown()) {
+                throw new RejectedExecutionException("Pool for non-blocking steps has been shut down");
+            }
+            switch (IN_BACKGROUND.get() != null ? RejectionPolicy.FAIL : rejectionPolicy) {
+            case CALLER_RUNS:
+                LOGGER.fine(() -> "running " + r + " in " + Thread.currentThread().getName() + " since the pool is saturated");
+                r.run();
+                break;
+            default:
+                throw new RejectedExecutionException("Too many non-blocking steps running at once (maximumPoolSize=" + executor.getMaximumPoolSize() + ", queued=" + executor.getQueue().size() + ")");
+            }
+        }
+    }
+
+    private NonBlockingStepExecutors() {}
+
+}
@@ -0,0 +1,287 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Statistics about background work run by {@link NonBlockingStepExecutors}, overall and per {@link StepDescriptor#getFunctionName}.
+ * Displayed in <b>Manage Jenkins » Non-blocking step threads</b>.
+ */
+@Restricted(Beta.class)
+public final class NonBlockingStepMetrics {
+
+    private static final StepMetrics TOTAL = new StepMetrics("*");
+    private static final Map<String, StepMetrics> BY_FUNCTION_NAME = new ConcurrentHashMap<>();
+
+    /**
+     * Wraps a task so that its queue wait and run time are recorded.
+     */
+    static @NonNull Runnable instrument(@NonNull String functionName, @NonNull Runnable task) {
+        StepMetrics metrics = BY_FUNCTION_NAME.computeIfAbsent(functionName, StepMetrics::new);
+        TOTAL.submitted.increment();
+        metrics.submitted.increment();
+        long submitted = System.nanoTime();
+        return () -> {
+            long start = System.nanoTime();
+            TOTAL.started(start - submitted);
+            metrics.started(start - submitted);
+            try {
+                task.run();
+            } finally {
+                long time = System.nanoTime() - start;
+                TOTAL.finished(time);
+                metrics.finished(time);
+            }
+        };
+    }
+
+    static void rejected(@NonNull String functionName) {
+        TOTAL.rejected.increment();
+        BY_FUNCTION_NAME.computeIfAbsent(functionName, StepMetrics::new).rejected.increment();
+    }
+
+    /**
+     * Statistics across all kinds of steps.
+     */
+    public static @NonNull StepMetrics getTotal() {
+        return TOTAL;
+    }
+
+    /**
+     * Statistics for each kind of step which has submitted work, sorted by function name.
+     */
+    public static @NonNull Map<String, StepMetrics> getByFunctionName() {
+        return new TreeMap<>(BY_FUNCTION_NAME);
+    }
+
+    /**
+     * Discards all statistics about finished work.
+     * Counts of currently running tasks are kept.
+     */
+    public static void reset() {
+        TOTAL.reset();
+        BY_FUNCTION_NAME.values().removeIf(StepMetrics::reset);
+    }
+
+    /**
+     * Statistics for one kind of step, or all of them.
+     */
+    public static final class StepMetrics {
+
+        private final String functionName;
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger peakActive = new AtomicInteger();
+        private final LongAdder submitted = new LongAdder();
+        private final LongAdder completed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final Histogram queueWait = new Histogram();
+        private final Histogram runTime = new Histogram();
+
+        StepMetrics(String functionName) {
+            this.functionName = functionName;
+        }
+
+        void started(long waitNanos) {
+            queueWait.record(waitNanos);
+            peakActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+        }
+
+        void finished(long runNanos) {
+            runTime.record(runNanos);
+            active.decrementAndGet();
+            completed.increment();
+        }
+
+        /**
+         * @return true if nothing is running, so the entry may be dropped
+         */
+        boolean reset() {
+            int running = active.get();
+            peakActive.set(running);
+            submitted.reset();
+            completed.reset();
+            rejected.reset();
+            queueWait.reset();
+            runTime.reset();
+            return running == 0;
+        }
+
+        /**
+         * The function name, or {@code *} for the total.
+         */
+        public @NonNull String getFunctionName() {
+            return functionName;
+        }
+
+        /**
+         * Number of tasks currently running, each occupying a thread.
+         */
+        public int getActive() {
+            return active.get();
+        }
+
+        /**
+         * Highest value of {@link #getActive} since startup or the last {@link #reset}.
+         */
+        public int getPeakActive() {
+            return peakActive.get();
+        }
+
+        public long getSubmitted() {
+            return submitted.sum();
+        }
+
+        public long getCompleted() {
+            return completed.sum();
+        }
+
+        /**
+         * Number of tasks refused by a {@link StepBulkhead} or by the executor.
+         */
+        public long getRejected() {
+            return rejected.sum();
+        }
+
+        /**
+         * Time between submission of a task and the start of its execution.
+         */
+        public @NonNull Histogram getQueueWait() {
+            return queueWait;
+        }
+
+        /**
+         * Time spent running a task.
+         */
+        public @NonNull Histogram getRunTime() {
+            return runTime;
+        }
+
+    }
+
+    /**
+     * Lock-free histogram of durations, using power-of-two millisecond buckets.
+     */
+    public static final class Histogram {
+
+        /**
+         * Bucket {@code i} counts durations below 2<sup>i</sup>ms (and at least 2<sup>i-1</sup>ms); the last bucket is unbounded.
+         */
+        static final int BUCKETS = 24;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(Math.max(nanos, 0));
+            int bucket = Math.min(64 - Long.numberOfLeadingZeros(millis), BUCKETS - 1);
+            counts.incrementAndGet(bucket);
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        void reset() {
+            for (int i = 0; i < BUCKETS; i++) {
+                counts.set(i, 0);
+            }
+            totalNanos.reset();
+            maxNanos.set(0);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                count += counts.get(i);
+            }
+            return count;
+        }
+
+        /**
+         * Counts per bucket; see {@link #getBucketUpperBoundMillis}.
+         */
+        public @NonNull long[] getCounts() {
+            long[] r = new long[BUCKETS];
+            for (int i = 0; i < BUCKETS; i++) {
+                r[i] = counts.get(i);
+            }
+            return r;
+        }
+
+        /**
+         * Exclusive upper bound of a bucket in milliseconds, or {@link Long#MAX_VALUE} for the last.
+         */
+        public static long getBucketUpperBoundMillis(int bucket) {
+            return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+        }
+
+        public long getMeanMillis() {
+            long count = getCount();
+            return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalNanos.sum() / count);
+        }
+
+        public long getMaxMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+        }
+
+        /**
+         * Approximates a percentile by the upper bound of the bucket containing it, capped by the maximum.
+         * @param percentile between 0 and 100
+         */
+        public long getPercentileMillis(double percentile) {
+            long[] snapshot = getCounts();
+            long count = 0;
+            for (long c : snapshot) {
+                count += c;
+            }
+            if (count == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(percentile / 100 * count);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank && snapshot[i] > 0) {
+                    return Math.min(getBucketUpperBoundMillis(i), getMaxMillis());
+                }
+            }
+            return getMaxMillis();
+        }
+
+    }
+
+    private NonBlockingStepMetrics() {}
+
+}
@@ -0,0 +1,102 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.Extension;
+import hudson.model.ManagementLink;
+import hudson.security.Permission;
+import java.util.Collection;
+import java.util.List;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Displays {@link NonBlockingStepMetrics} and the configuration of {@link NonBlockingStepExecutors}.
+ */
+@Restricted(NoExternalUse.class)
+@Extension public final class NonBlockingStepMetricsLink extends ManagementLink {
+
+    @Override public String getIconFileName() {
+        return "symbol-analytics";
+    }
+
+    @Override public String getDisplayName() {
+        return "Non-blocking step threads";
+    }
+
+    @Override public String getDescription() {
+        return "Activity and latency of background threads used by Pipeline steps.";
+    }
+
+    @Override public String getUrlName() {
+        return "nonBlockingStepThreads";
+    }
+
+    @Override public Permission getRequiredPermission() {
+        return Jenkins.SYSTEM_READ;
+    }
+
+    @Override public Category getCategory() {
+        return Category.STATUS;
+    }
+
+    public NonBlockingStepMetrics.StepMetrics getTotal() {
+        return NonBlockingStepMetrics.getTotal();
+    }
+
+    public Collection<NonBlockingStepMetrics.StepMetrics> getByFunctionName() {
+        return NonBlockingStepMetrics.getByFunctionName().values();
+    }
+
+    public List<StepBulkhead> getBulkheads() {
+        return NonBlockingStepExecutors.getBulkheads();
+    }
+
+    public boolean isVirtualThreads() {
+        return NonBlockingStepExecutors.isVirtualThreads();
+    }
+
+    public int getPoolSize() {
+        return NonBlockingStepExecutors.getPoolSize();
+    }
+
+    public int getLargestPoolSize() {
+        return NonBlockingStepExecutors.getLargestPoolSize();
+    }
+
+    public int getCorePoolSize() {
+        return NonBlockingStepExecutors.getCorePoolSize();
+    }
+
+    public int getMaximumPoolSize() {
+        return NonBlockingStepExecutors.getMaximumPoolSize();
+    }
+
+    public int getQueueCapacity() {
+        return NonBlockingStepExecutors.getQueueCapacity();
+    }
+
+}
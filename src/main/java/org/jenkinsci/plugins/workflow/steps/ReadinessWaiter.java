@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+
+/**
+ * Default implementation of {@link StepContext#whenReady} for contexts which cannot notify on their own.
+ * All waiting contexts are checked by a single periodic task, which runs only while something is waiting,
+ * rather than each caller polling {@link StepContext#isReady} separately.
+ * A waiter is dropped once its future is cancelled, or failed with a {@link TimeoutException}
+ * after {@code ReadinessWaiter.maxWaitSeconds} (default 1800).
+ */
+final class ReadinessWaiter {
+
+    private static final Logger LOGGER = Logger.getLogger(ReadinessWaiter.class.getName());
+
+    static final long CHECK_MILLIS = Math.max(10, SystemProperties.getLong(ReadinessWaiter.class.getName() + ".checkMillis", 100L));
+
+    static final long MAX_WAIT_SECONDS = Math.max(1, SystemProperties.getLong(ReadinessWaiter.class.getName() + ".maxWaitSeconds", 1800L));
+
+    private static final class Waiter {
+        final StepContext context;
+        final long maxWaitNanos;
+        final long deadline;
+        final SettableFuture<Void> future = SettableFuture.create();
+        Waiter(StepContext context, long maxWaitNanos) {
+            this.context = context;
+            this.maxWaitNanos = maxWaitNanos;
+            deadline = System.nanoTime() + maxWaitNanos;
+        }
+        /**
+         * @return true if no longer waiting
+         */
+        boolean check() {
+            if (future.isDone()) {
+                return true;
+            }
+            try {
+                if (context.isReady()) {
+                    future.set(null);
+                    return true;
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    future.setException(new TimeoutException(context + " was not ready after " + TimeUnit.NANOSECONDS.toMillis(maxWaitNanos) + "ms"));
+                    return true;
+                }
+                return false;
+            } catch (RuntimeException x) {
+                LOGGER.log(Level.FINE, "failed to check readiness of " + context, x);
+                future.setException(x);
+                return true;
+            }
+        }
+    }
+
+    private static final Queue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private static boolean scheduled;
+
+    static ListenableFuture<Void> await(StepContext context) {
+        return await(context, TimeUnit.SECONDS.toNanos(MAX_WAIT_SECONDS));
+    }
+
+    static ListenableFuture<Void> await(StepContext context, long maxWaitNanos) {
+        Waiter waiter = new Waiter(context, maxWaitNanos);
+        if (!waiter.check()) {
+            waiters.add(waiter);
+            schedule();
+        }
+        return waiter.future;
+    }
+
+    private static synchronized void schedule() {
+        if (!scheduled) {
+            Timer.get().schedule(ReadinessWaiter::check, CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            scheduled = true;
+        }
+    }
+
+    static void check() {
+        for (Iterator<Waiter> it = waiters.iterator(); it.hasNext();) {
+            if (it.next().check()) {
+                it.remove();
+            }
+        }
+        synchronized (ReadinessWaiter.class) {
+            scheduled = false;
+            if (!waiters.isEmpty()) {
+                schedule();
+            }
+        }
+    }
+
+    private ReadinessWaiter() {}
+
+}
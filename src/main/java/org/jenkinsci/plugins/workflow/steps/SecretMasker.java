@@ -0,0 +1,299 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.EnvVars;
+import hudson.console.ConsoleLogFilter;
+import hudson.console.LineTransformationOutputStream;
+import hudson.model.AbstractBuild;
+import hudson.util.Secret;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Masks any number of secret values in a log, in time linear in the log size regardless of how many secrets there are.
+ * All secrets are matched at once using an Aho–Corasick automaton over their UTF-8 bytes.
+ * The secrets are held {@linkplain Secret encrypted} when serialized, for example as part of a {@link BodyInvoker#withContext} override.
+ * @see EnvironmentExpander#getSensitiveVariables
+ */
+@Restricted(Beta.class)
+public final class SecretMasker extends ConsoleLogFilter implements LineConsoleLogFilter, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String MASK = "****";
+
+    private final @NonNull Secret[] secrets;
+    private transient volatile Automaton automaton;
+
+    private SecretMasker(Secret[] secrets) {
+        this.secrets = secrets;
+    }
+
+    /**
+     * Creates a masker for some values.
+     * @param values secret values; empty values are ignored
+     * @return a masker, or null if there is nothing to mask
+     */
+    public static @CheckForNull SecretMasker of(@NonNull Collection<String> values) {
+        Set<String> distinct = new TreeSet<>();
+        for (String value : values) {
+            if (value != null && !value.isEmpty()) {
+                distinct.add(value);
+            }
+        }
+        if (distinct.isEmpty()) {
+            return null;
+        }
+        List<Secret> secrets = new ArrayList<>();
+        for (String value : distinct) {
+            secrets.add(Secret.fromString(value));
+        }
+        return new SecretMasker(secrets.toArray(new Secret[0]));
+    }
+
+    /**
+     * Creates a masker for the {@linkplain EnvironmentExpander#getSensitiveVariables sensitive variables} of an environment.
+     * @param expander the expander in effect, which lists the names of sensitive variables
+     * @param env the effective environment, which supplies their values
+     * @return a masker, or null if there is nothing to mask
+     */
+    public static @CheckForNull SecretMasker of(@CheckForNull EnvironmentExpander expander, @NonNull EnvVars env) {
+        if (expander == null) {
+            return null;
+        }
+        Set<String> names = expander.getSensitiveVariables();
+        if (names.isEmpty()) {
+            return null;
+        }
+        List<String> values = new ArrayList<>();
+        for (String name : names) {
+            values.add(env.get(name));
+        }
+        return of(values);
+    }
+
+    /**
+     * Creates a masker for the sensitive variables in effect in a step.
+     * Uses {@link StepContext#getAll}, so with {@linkplain StepContext#enableMemoization memoization} the lookups are done once per context.
+     * @return a masker, or null if there is nothing to mask
+     */
+    public static @CheckForNull SecretMasker of(@NonNull StepContext context) throws IOException, InterruptedException {
+        ContextValues values = context.getAll(List.of(EnvironmentExpander.class, EnvVars.class));
+        EnvVars env = values.get(EnvVars.class);
+        return env != null ? of(values.get(EnvironmentExpander.class), env) : null;
+    }
+
+    private Automaton automaton() {
+        Automaton a = automaton;
+        if (a == null) {
+            List<byte[]> patterns = new ArrayList<>();
+            for (Secret secret : secrets) {
+                patterns.add(secret.getPlainText().getBytes(StandardCharsets.UTF_8));
+            }
+            a = automaton = new Automaton(patterns);
+        }
+        return a;
+    }
+
+    /**
+     * Masks all secrets in some text.
+     */
+    public @NonNull String mask(@NonNull String text) {
+        byte[] b = text.getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream out = new ByteArrayOutputStream(b.length);
+        try {
+            automaton().mask(b, b.length, out);
+        } catch (IOException x) {
+            throw new AssertionError(x);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("rawtypes")
+    @Override public OutputStream decorateLogger(AbstractBuild _ignore, OutputStream logger) throws IOException, InterruptedException {
+        Automaton a = automaton();
+        return new LineTransformationOutputStream.Delegating(logger) {
+            @Override protected void eol(byte[] b, int len) throws IOException {
+                a.mask(b, len, out);
+            }
+        };
+    }
+
+    @Override public Transformer newTransformer() {
+        return automaton()::mask;
+    }
+
+    /**
+     * Aho–Corasick automaton over bytes.
+     * Each state keeps its outgoing edges as parallel sorted arrays, a failure link,
+     * and the length of the longest pattern ending at that state (directly or through failure links).
+     */
+    static final class Automaton {
+
+        private byte[][] labels = new byte[1][0];
+        private int[][] targets = new int[1][0];
+        private int[] fail = new int[1];
+        private int[] matchLength = new int[1];
+        private int states = 1;
+
+        Automaton(List<byte[]> patterns) {
+            for (byte[] pattern : patterns) {
+                int state = 0;
+                for (byte c : pattern) {
+                    int next = edge(state, c);
+                    if (next < 0) {
+                        next = addState();
+                        addEdge(state, c, next);
+                    }
+                    state = next;
+                }
+                matchLength[state] = Math.max(matchLength[state], pattern.length);
+            }
+            // breadth-first computation of failure links
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                fail[child] = 0;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int state = queue.remove();
+                for (int i = 0; i < labels[state].length; i++) {
+                    byte c = labels[state][i];
+                    int child = targets[state][i];
+                    int f = fail[state];
+                    while (f != 0 && edge(f, c) < 0) {
+                        f = fail[f];
+                    }
+                    int t = edge(f, c);
+                    fail[child] = t >= 0 && t != child ? t : 0;
+                    matchLength[child] = Math.max(matchLength[child], matchLength[fail[child]]);
+                    queue.add(child);
+                }
+            }
+        }
+
+        private int addState() {
+            if (states == fail.length) {
+                int n = states * 2;
+                labels = Arrays.copyOf(labels, n);
+                targets = Arrays.copyOf(targets, n);
+                fail = Arrays.copyOf(fail, n);
+                matchLength = Arrays.copyOf(matchLength, n);
+            }
+            labels[states] = new byte[0];
+            targets[states] = new int[0];
+            return states++;
+        }
+
+        private void addEdge(int state, byte c, int target) {
+            byte[] l = labels[state];
+            int[] t = targets[state];
+            int pos = -(Arrays.binarySearch(l, c) + 1);
+            byte[] l2 = new byte[l.length + 1];
+            int[] t2 = new int[t.length + 1];
+            System.arraycopy(l, 0, l2, 0, pos);
+            System.arraycopy(t, 0, t2, 0, pos);
+            l2[pos] = c;
+            t2[pos] = target;
+            System.arraycopy(l, pos, l2, pos + 1, l.length - pos);
+            System.arraycopy(t, pos, t2, pos + 1, t.length - pos);
+            labels[state] = l2;
+            targets[state] = t2;
+        }
+
+        private int edge(int state, byte c) {
+            int i = Arrays.binarySearch(labels[state], c);
+            return i >= 0 ? targets[state][i] : -1;
+        }
+
+        /**
+         * Writes the first {@code len} bytes of {@code b} with every occurrence of a pattern replaced by {@link #MASK}.
+         * Overlapping or adjacent occurrences are replaced by a single mask.
+         */
+        void mask(byte[] b, int len, OutputStream out) throws IOException {
+            // earliest start of a match ending at each position, or len if none
+            int[] start = null;
+            int state = 0;
+            for (int i = 0; i < len; i++) {
+                byte c = b[i];
+                int next;
+                while ((next = edge(state, c)) < 0 && state != 0) {
+                    state = fail[state];
+                }
+                state = next < 0 ? 0 : next;
+                if (matchLength[state] > 0) {
+                    if (start == null) {
+                        start = new int[len];
+                        Arrays.fill(start, len);
+                    }
+                    start[i] = i - matchLength[state] + 1;
+                }
+            }
+            if (start == null) {
+                out.write(b, 0, len);
+                return;
+            }
+            // position i is covered if some match ending at or after i starts at or before it
+            boolean[] covered = new boolean[len];
+            int earliest = len;
+            for (int i = len - 1; i >= 0; i--) {
+                earliest = Math.min(earliest, start[i]);
+                covered[i] = earliest <= i;
+            }
+            byte[] mask = MASK.getBytes(StandardCharsets.US_ASCII);
+            int plain = 0;
+            for (int i = 0; i < len; i++) {
+                if (covered[i] && (i == 0 || !covered[i - 1])) {
+                    out.write(b, plain, i - plain);
+                    out.write(mask);
+                } else if (!covered[i] && i > 0 && covered[i - 1]) {
+                    plain = i;
+                }
+            }
+            if (!covered[len - 1]) {
+                out.write(b, plain, len - plain);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Isolated thread budget for the background work of one kind of step,
+ * so that a step type which is slow or stuck cannot starve all the others in {@link NonBlockingStepExecutors}.
+ * <p>At most {@link #getMaxConcurrent} tasks run at once; up to {@link #getMaxQueued} more wait their turn,
+ * and any further submission fails fast with a {@link RejectedExecutionException}.
+ * Tasks still run in the shared executor, so its own limits apply as well.
+ * @see NonBlockingStepExecutors#configureBulkhead
+ */
+@Restricted(Beta.class)
+public final class StepBulkhead {
+
+    private final @NonNull String functionName;
+    private final @NonNull Supplier<ExecutorService> executor;
+    private volatile int maxConcurrent;
+    private volatile int maxQueued;
+
+    private final Queue<FutureTask<?>> queue = new ArrayDeque<>();
+    private int running;
+    private int peakRunning;
+    private long submitted;
+    private long rejected;
+
+    StepBulkhead(@NonNull String functionName, int maxConcurrent, int maxQueued, @NonNull Supplier<ExecutorService> executor) {
+        this.functionName = functionName;
+        this.executor = executor;
+        setLimits(maxConcurrent, maxQueued);
+    }
+
+    void setLimits(int maxConcurrent, int maxQueued) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("invalid bulkhead sizing for " + functionName + ": maxConcurrent=" + maxConcurrent + " maxQueued=" + maxQueued);
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        FutureTask<?> next;
+        while ((next = poll(true)) != null) {
+            dispatch(next);
+        }
+    }
+
+    /**
+     * Runs a task once a slot is free.
+     * @throws RejectedExecutionException if the bulkhead (or the shared executor) is saturated
+     */
+    Future<?> submit(@NonNull Runnable task) {
+        FutureTask<?> f = new FutureTask<>(task, null);
+        synchronized (this) {
+            submitted++;
+            if (running < maxConcurrent) {
+                running++;
+                peakRunning = Math.max(peakRunning, running);
+            } else if (queue.size() < maxQueued) {
+                queue.add(f);
+                return f;
+            } else {
+                rejected++;
+                throw new RejectedExecutionException("Too many " + functionName + " steps running at once (maxConcurrent=" + maxConcurrent + ", maxQueued=" + maxQueued + ")");
+            }
+        }
+        try {
+            executor.get().submit(wrap(f));
+        } catch (RejectedExecutionException x) {
+            synchronized (this) {
+                running--;
+                rejected++;
+            }
+            throw x;
+        }
+        return f;
+    }
+
+    private Runnable wrap(FutureTask<?> f) {
+        return () -> {
+            try {
+                f.run();
+            } finally {
+                FutureTask<?> next = poll(false);
+                if (next != null) {
+                    dispatch(next);
+                }
+            }
+        };
+    }
+
+    /**
+     * Picks the next queued task, if any, to take over a slot.
+     * @param acquire true to take a fresh slot if one is free; false to hand over the slot of a finished task
+     */
+    private synchronized FutureTask<?> poll(boolean acquire) {
+        if (acquire && running >= maxConcurrent) {
+            return null;
+        }
+        FutureTask<?> next;
+        do {
+            next = queue.poll();
+        } while (next != null && next.isCancelled());
+        if (next == null) {
+            if (!acquire) {
+                running--;
+            }
+        } else if (acquire) {
+            running++;
+            peakRunning = Math.max(peakRunning, running);
+        }
+        return next;
+    }
+
+    private void dispatch(FutureTask<?> next) {
+        Runnable r = wrap(next);
+        try {
+            executor.get().submit(r);
+        } catch (RejectedExecutionException x) {
+            // Nobody is left to tell about the rejection, so use the thread we are in, which finished a task of this kind (or reconfigured the bulkhead).
+            r.run();
+        }
+    }
+
+    public @NonNull String getFunctionName() {
+        return functionName;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * Number of tasks currently running.
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    /**
+     * Highest value of {@link #getRunning} so far.
+     */
+    public synchronized int getPeakRunning() {
+        return peakRunning;
+    }
+
+    /**
+     * Number of tasks waiting for a slot.
+     */
+    public synchronized int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * Total number of tasks submitted, including rejected ones.
+     */
+    public synchronized long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * Total number of tasks rejected because the bulkhead was saturated.
+     */
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Fraction of the bulkhead in use, counting both running and queued tasks; 1 means further submissions will be rejected.
+     */
+    public synchronized double getSaturation() {
+        return (double) (running + queue.size()) / ((long) maxConcurrent + maxQueued);
+    }
+
+    @Override public String toString() {
+        return "StepBulkhead[" + functionName + "]";
+    }
+
+}
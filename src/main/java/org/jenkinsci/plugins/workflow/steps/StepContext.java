@@ -26,6 +26,7 @@ package org.jenkinsci.plugins.workflow.steps;
 
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
 import hudson.EnvVars;
 import hudson.FilePath;
 import hudson.Launcher;
@@ -35,9 +36,19 @@ import hudson.model.Result;
 import hudson.model.Run;
 import hudson.model.TaskListener;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
 import edu.umd.cs.findbugs.annotations.Nullable;
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * An implicit context available to every {@link Step}.
@@ -75,11 +86,152 @@ public abstract class StepContext implements FutureCallback<Object>, Serializabl
      *      {@code FlowExecutionOwner.get} throws IOException.
      * @see BodyInvoker#withContext
      * @see DynamicContext
+     * @see #getMemoized
      */
     public abstract <T> T get(Class<T> key) throws IOException, InterruptedException;
 
+    private transient volatile Map<Class<?>, Object> memo;
+    private transient volatile Set<Class<?>> volatileTypes;
+
+    /**
+     * Turns on memoization of {@link #getMemoized} for this context object.
+     * Useful for a step which looks up the same types repeatedly, since each call to {@link #get} may need to consult
+     * overrides from enclosing blocks and every {@link DynamicContext}.
+     * <p>Memoized values are kept in memory only for the lifetime of this object.
+     * Null results are not memoized, nor is anything while {@link #isReady} is false.
+     * Use {@link #declareVolatile} for types whose value may change during the step,
+     * and {@link #invalidate} after doing something which would change a value.
+     */
+    public final void enableMemoization() {
+        if (memo == null) {
+            memo = new ConcurrentHashMap<>();
+        }
+    }
+
+    /**
+     * Excludes some types from memoization, so that {@link #getMemoized} always calls {@link #get} for them.
+     */
+    public final synchronized void declareVolatile(@NonNull Class<?>... types) {
+        Set<Class<?>> r = new HashSet<>();
+        if (volatileTypes != null) {
+            r.addAll(volatileTypes);
+        }
+        r.addAll(Arrays.asList(types));
+        volatileTypes = r;
+        for (Class<?> type : types) {
+            invalidate(type);
+        }
+    }
+
+    /**
+     * Forgets memoized values of a given type, as well as of any supertype or subtype.
+     */
+    public final void invalidate(@NonNull Class<?> type) {
+        Map<Class<?>, Object> m = memo;
+        if (m != null) {
+            m.keySet().removeIf(k -> k.isAssignableFrom(type) || type.isAssignableFrom(k));
+        }
+    }
+
+    /**
+     * Forgets all memoized values.
+     */
+    public final void invalidateAll() {
+        Map<Class<?>, Object> m = memo;
+        if (m != null) {
+            m.clear();
+        }
+    }
+
+    /**
+     * Like {@link #get}, but returns a previously found value if {@link #enableMemoization} has been called.
+     */
+    public final <T> T getMemoized(Class<T> key) throws IOException, InterruptedException {
+        Map<Class<?>, Object> m = memo;
+        if (m == null) {
+            return get(key);
+        }
+        Set<Class<?>> v = volatileTypes;
+        if (v != null) {
+            for (Class<?> type : v) {
+                if (type.isAssignableFrom(key) || key.isAssignableFrom(type)) {
+                    return get(key);
+                }
+            }
+        }
+        Object value = m.get(key);
+        if (value != null) {
+            return key.cast(value);
+        }
+        T t = get(key);
+        if (t != null && isReady()) {
+            m.put(key, t);
+        }
+        return t;
+    }
+
+    /**
+     * Like {@link #getMemoized}, but without blocking the caller.
+     * Useful from the CPS VM thread when the value may need a remote call, as for {@link Computer} or agent-side {@link EnvVars}.
+     * An implementation which can look up values asynchronously should override this;
+     * the default implementation calls {@link #getMemoized} on the same executor used by {@link SynchronousNonBlockingStepExecution},
+     * subject to any {@link StepBulkhead} configured for {@code org.jenkinsci.plugins.workflow.steps.StepContext.getAsync},
+     * and never in the calling thread.
+     * @param key as per {@link #get}
+     * @return a future yielding the result of {@link #get}, which may be null, or failing with {@link RejectedExecutionException} if the executor is saturated
+     */
+    public @NonNull <T> ListenableFuture<T> getAsync(@NonNull Class<T> key) {
+        SettableFuture<T> result = SettableFuture.create();
+        try {
+            NonBlockingStepExecutors.submitInBackground(GET_ASYNC, () -> {
+                try {
+                    result.set(getMemoized(key));
+                } catch (Throwable x) {
+                    result.setException(x);
+                }
+            });
+        } catch (RejectedExecutionException x) {
+            result.setException(x);
+        }
+        return result;
+    }
+
+    private static final String GET_ASYNC = StepContext.class.getName() + ".getAsync";
+
+    /**
+     * Looks up several types at once.
+     * Many steps need a number of objects such as {@link Run}, {@link TaskListener}, {@link FilePath}, {@link Launcher} and {@link EnvVars} together;
+     * an implementation which would otherwise repeat expensive work for each call to {@link #get},
+     * such as loading the program state or the {@link Run}, should override this to share that work.
+     * The default implementation calls {@link #getMemoized} for each type.
+     * @param types the types to look up, as per {@link #get}
+     * @return a value, or null, for each requested type
+     */
+    public @NonNull ContextValues getAll(@NonNull Collection<? extends Class<?>> types) throws IOException, InterruptedException {
+        Map<Class<?>, Object> values = new LinkedHashMap<>();
+        for (Class<?> type : types) {
+            values.put(type, getMemoized(type));
+        }
+        return new ContextValues(values);
+    }
+
     @Override public abstract void onSuccess(@Nullable Object result);
 
+    /**
+     * Finds the deadline in effect for this step, if any, as set by an enclosing block using {@link BodyInvoker#withContext}.
+     * @return the result of {@link #get} for {@link StepDeadline}, or null if there is none or it could not be loaded
+     */
+    public @CheckForNull StepDeadline getDeadline() {
+        try {
+            return get(StepDeadline.class);
+        } catch (IOException x) {
+            return null;
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
     /**
      * Whether {@link #get} is ready to return values.
      * May be called to break deadlocks during reloading.
@@ -87,6 +239,19 @@ public abstract class StepContext implements FutureCallback<Object>, Serializabl
      */
     public abstract boolean isReady();
 
+    /**
+     * Notifies when {@link #isReady} becomes true, for example once the program has been reloaded after a restart.
+     * Use this rather than repeatedly calling {@link #isReady}.
+     * An implementation which knows when loading finishes should override this;
+     * the default implementation checks {@link #isReady} periodically from a single task shared by all waiting contexts.
+     * The caller may cancel the returned future to stop waiting.
+     * @return a future which completes when this context is ready, or fails if readiness could not be checked,
+     *         or with a {@link java.util.concurrent.TimeoutException} if it has not become ready after a long time
+     */
+    public @NonNull ListenableFuture<Void> whenReady() {
+        return ReadinessWaiter.await(this);
+    }
+
     /**
      * Requests that any state held by the {@link StepExecution} be saved to disk.
      * Useful when a long-running step has changed some instance fields (or the content of a final field) and needs these changes to be recorded.
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Result;
+import java.io.Serializable;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import jenkins.model.CauseOfInterruption;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * A point in time by which a step and everything inside it should have finished.
+ * Pass into {@link BodyInvoker#withContext} (using {@link #merge}) so that it is inherited by the body,
+ * and look it up using {@link StepContext#getDeadline}.
+ * <p>{@link SynchronousNonBlockingStepExecution} and {@link GeneralNonBlockingStepExecution} stop themselves when the deadline passes.
+ * Other code may use {@link #getRemaining} to bound its own waits, or {@link #onExpiry} to be notified.
+ * <p>Uses wall-clock time, so that it remains meaningful across a restart.
+ */
+@Restricted(Beta.class)
+public final class StepDeadline implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long epochMillis;
+
+    private StepDeadline(long epochMillis) {
+        this.epochMillis = epochMillis;
+    }
+
+    /**
+     * A deadline at a given time.
+     * @param epochMillis as in {@link System#currentTimeMillis}
+     */
+    public static @NonNull StepDeadline at(long epochMillis) {
+        return new StepDeadline(epochMillis);
+    }
+
+    /**
+     * A deadline some time from now.
+     */
+    public static @NonNull StepDeadline after(long duration, @NonNull TimeUnit unit) {
+        return new StepDeadline(System.currentTimeMillis() + unit.toMillis(duration));
+    }
+
+    /**
+     * Combines a deadline already in effect with a new one.
+     * @param original a deadline already found in a context, if any
+     * @param subsequent what you are adding
+     * @return whichever is earlier
+     */
+    public static @NonNull StepDeadline merge(@CheckForNull StepDeadline original, @NonNull StepDeadline subsequent) {
+        return original != null && original.epochMillis <= subsequent.epochMillis ? original : subsequent;
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    /**
+     * Time left until the deadline, or zero if it has passed.
+     */
+    public long getRemaining(@NonNull TimeUnit unit) {
+        return unit.convert(Math.max(0, epochMillis - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isExpired() {
+        return System.currentTimeMillis() >= epochMillis;
+    }
+
+    /**
+     * Runs an action once the deadline passes, or soon after.
+     * Deadlines are checked in batches by one shared timer task, so this is cheap even for many thousands of registrations.
+     * The action runs in a timer thread and so should be quick.
+     * @return a handle to cancel the action, which should be used once it is no longer needed
+     */
+    public @NonNull Registration onExpiry(@NonNull Runnable action) {
+        return DeadlineScheduler.schedule(epochMillis, action);
+    }
+
+    /**
+     * Creates an exception suitable for stopping a step whose deadline has passed.
+     */
+    public @NonNull FlowInterruptedException exceeded() {
+        return new FlowInterruptedException(Result.ABORTED, true, new ExceededCause(epochMillis));
+    }
+
+    @Override public boolean equals(Object o) {
+        return o instanceof StepDeadline && ((StepDeadline) o).epochMillis == epochMillis;
+    }
+
+    @Override public int hashCode() {
+        return Long.hashCode(epochMillis);
+    }
+
+    @Override public String toString() {
+        return "StepDeadline[" + new Date(epochMillis) + "]";
+    }
+
+    /**
+     * Handle returned from {@link #onExpiry}.
+     */
+    public interface Registration {
+        /**
+         * Cancels the action if it has not already run.
+         */
+        void cancel();
+    }
+
+    /**
+     * Recorded when a step is stopped because its deadline passed.
+     */
+    public static final class ExceededCause extends CauseOfInterruption {
+
+        private static final long serialVersionUID = 1L;
+
+        private final long epochMillis;
+
+        ExceededCause(long epochMillis) {
+            this.epochMillis = epochMillis;
+        }
+
+        public long getEpochMillis() {
+            return epochMillis;
+        }
+
+        @Override public String getShortDescription() {
+            return "Deadline of " + new Date(epochMillis) + " exceeded";
+        }
+
+    }
+
+}
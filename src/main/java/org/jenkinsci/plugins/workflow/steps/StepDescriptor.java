@@ -253,17 +253,30 @@ public abstract class StepDescriptor extends Descriptor<Step> {
     }
 
 
+    private transient volatile ContextPlan contextPlan;
+
+    /**
+     * {@link #getRequiredContext} and {@link #getProvidedContext}, computed once.
+     */
+    final ContextPlan getContextPlan() {
+        ContextPlan plan = contextPlan;
+        if (plan == null) {
+            plan = contextPlan = new ContextPlan(getRequiredContext(), getProvidedContext());
+        }
+        return plan;
+    }
+
     /**
      * Makes sure that the given {@link StepContext} has all the context parameters this descriptor wants to see,
-     * and if not, throw {@link MissingContextVariableException} indicating which variable is missing.
+     * and if not, throw {@link MissingContextVariableException} indicating which variables are missing, sorted by name.
+     * Uses {@link StepContext#getAll}, so an implementation may share work between the lookups,
+     * and if memoization is enabled the step will not need to look up these types again.
      */
     public final void checkContextAvailability(StepContext c) throws MissingContextVariableException, IOException, InterruptedException {
-        // TODO the order here is nondeterministic; should we pick the lexicographic first? Or extend MissingContextVariableException to take a Set<Class<?>> types?
-        for (Class<?> type : getRequiredContext()) {
-            Object v = c.get(type);
-            if (v == null) {
-                throw new MissingContextVariableException(type, this);
-            }
+        ContextPlan plan = getContextPlan();
+        List<Class<?>> missing = plan.missing(c.getAll(plan.getRequired()));
+        if (!missing.isEmpty()) {
+            throw new MissingContextVariableException(missing, this);
         }
     }
 
@@ -4,6 +4,8 @@ import hudson.EnvVars;
 import hudson.ExtensionPoint;
 import hudson.model.TaskListener;
 import java.io.IOException;
+import java.util.Set;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 
 /**
@@ -44,4 +46,23 @@ public abstract class StepEnvironmentContributor implements ExtensionPoint {
    *      Connected to the build console. Can be used to report errors.
    */
   public void buildEnvironmentFor(@NonNull StepContext stepContext, @NonNull EnvVars envs, @NonNull TaskListener listener) throws IOException, InterruptedException {}
+
+  /**
+   * Declares that the contribution may be cached.
+   *
+   * <p>
+   * If this returns a set of context types, such as {@link hudson.model.Run} alone, or {@link hudson.model.Run} and {@link hudson.model.Computer},
+   * the variables added, changed or removed by {@link #buildEnvironmentFor} must depend only on the
+   * {@link StepContext#get} values of those types, and not on the variables already present in {@code envs}.
+   * The framework will then remember the changes made for each combination of values and replay them
+   * rather than calling {@link #buildEnvironmentFor} again, so nothing is printed to the listener in that case.
+   * Values are compared using {@link Object#equals}, except that builds are compared by {@link hudson.model.Run#getExternalizableId}
+   * and computers and nodes by name, so that the framework need not keep them in memory.
+   *
+   * @return null (the default) if the contribution must be computed for every step, else the types it depends on
+   * @see EffectiveEnvironmentCache
+   */
+  public @CheckForNull Set<Class<?>> getCacheKeyTypes() {
+    return null;
+  }
 }
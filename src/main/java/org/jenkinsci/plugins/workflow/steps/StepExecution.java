@@ -5,18 +5,29 @@ import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jakarta.inject.Inject;
 import jenkins.model.queue.AsynchronousExecution;
-import jenkins.util.Timer;
+import jenkins.util.SystemProperties;
 
 /**
  * Scoped to a single execution of {@link Step}, and provides insights into what's going on
@@ -65,7 +76,7 @@ public abstract class StepExecution implements Serializable {
      * <p>Arguments are passed when {@linkplain StepDescriptor#newInstance(Map) instantiating steps}.
      *
      * <p>This method will run in the CPS VM thread and as such should not perform I/O or block.
-     * Use {@link SynchronousNonBlockingStepExecution} or {@link GeneralNonBlockingStepExecution} as needed.
+     * Use {@link SynchronousNonBlockingStepExecution}, {@link GeneralNonBlockingStepExecution}, or {@link CompletionStageStepExecution} as needed.
      *
      * @return
      *      true if the execution of this step has synchronously completed before this method returns.
@@ -118,6 +129,17 @@ public abstract class StepExecution implements Serializable {
      */
     public void onResume() {}
 
+    /**
+     * Identifies the kind of step which created this execution, for example to select a {@link StepBulkhead},
+     * record {@link NonBlockingStepMetrics}, or match {@link StepExecutionQuery#functionName}.
+     * The default implementation looks for a {@link Step} class enclosing the execution class, as is conventional.
+     * Should be overridden if the execution class is not defined by a single step.
+     * @return a {@link StepDescriptor#getFunctionName}, or null if unknown
+     */
+    public @CheckForNull String getFunctionName() {
+        return StepFunctionNames.forClass(getClass());
+    }
+
     /**
      * May be overridden to provide specific information about what a step is currently doing, for diagnostic purposes.
      * Typical format should be a short, lowercase phrase.
@@ -150,13 +172,10 @@ public abstract class StepExecution implements Serializable {
      * @param unit time unit
      */
     public final @CheckForNull String getStatusBounded(long timeout, TimeUnit unit) {
-        Future<String> task = null;
+        FutureTask<String> task = null;
         try {
-            task = Timer.get().submit(new Callable<String>() {
-                @Override public String call() throws Exception {
-                    return getStatus();
-                }
-            });
+            task = new FutureTask<>(this::getStatus);
+            StatusExecutor.INSTANCE.execute(task);
             return task.get(timeout, unit);
         } catch (Exception x) { // ExecutionException, RejectedExecutionException, CancellationException, TimeoutException, InterruptedException
             if (task != null) {
@@ -167,6 +186,89 @@ public abstract class StepExecution implements Serializable {
         }
     }
 
+    /**
+     * Like {@link #getStatusBounded} but for many executions at once.
+     * Statuses are computed in parallel, with at most {@code statusParallelism} (default 10) computations in flight
+     * across all callers, under one overall deadline rather than one per execution.
+     * Executions whose status could not be computed in time are reported as a {@link TimeoutException}, as in {@link #getStatusBounded}.
+     * @param executions executions to check
+     * @param timeout maximum amount of time to spend overall
+     * @param unit time unit
+     * @param listener optionally notified (in the calling thread) of each result as soon as it is available, and then of each execution which timed out
+     * @return the status of each execution, in the order reported to {@code listener}
+     */
+    public static @NonNull Map<StepExecution, String> getStatusesBounded(@NonNull Collection<? extends StepExecution> executions, long timeout, @NonNull TimeUnit unit, @CheckForNull BiConsumer<? super StepExecution, ? super String> listener) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Map<StepExecution, String> results = new LinkedHashMap<>();
+        BiConsumer<StepExecution, String> report = (e, status) -> {
+            results.put(e, status);
+            if (listener != null) {
+                listener.accept(e, status);
+            }
+        };
+        CompletionService<String> service = new ExecutorCompletionService<>(StatusExecutor.INSTANCE);
+        Map<Future<String>, StepExecution> pending = new HashMap<>();
+        Iterator<? extends StepExecution> it = executions.iterator();
+        try {
+            while (true) {
+                while (pending.size() < STATUS_PARALLELISM && it.hasNext()) {
+                    StepExecution e = it.next();
+                    try {
+                        pending.put(service.submit(e::getStatus), e);
+                    } catch (RejectedExecutionException x) {
+                        report.accept(e, x.toString());
+                    }
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+                long remaining = deadline - System.nanoTime();
+                Future<String> task = remaining > 0 ? service.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (task == null) {
+                    break;
+                }
+                StepExecution e = pending.remove(task);
+                String status;
+                try {
+                    status = task.get();
+                } catch (ExecutionException x) {
+                    LOGGER.log(Level.FINE, "failed to check status of " + e.superToString(), x);
+                    status = x.toString();
+                }
+                report.accept(e, status);
+            }
+        } catch (InterruptedException x) {
+            Thread.currentThread().interrupt();
+        }
+        String timedOut = new TimeoutException().toString();
+        for (Map.Entry<Future<String>, StepExecution> entry : pending.entrySet()) {
+            entry.getKey().cancel(true);
+            report.accept(entry.getValue(), timedOut);
+        }
+        while (it.hasNext()) {
+            report.accept(it.next(), timedOut);
+        }
+        return results;
+    }
+
+    private static final int STATUS_PARALLELISM = Math.max(1, SystemProperties.getInteger(StepExecution.class.getName() + ".statusParallelism", 10));
+
+    /**
+     * Runs {@link #getStatus} in {@link NonBlockingStepExecutors} rather than a shared timer pool,
+     * within a {@link StepBulkhead} (unless one is configured explicitly) so that slow implementations cannot occupy many threads.
+     */
+    private static final class StatusExecutor {
+        private static final String KEY = StepExecution.class.getName() + ".getStatus";
+        static final Executor INSTANCE = task -> NonBlockingStepExecutors.submitInBackground(KEY, task);
+        static {
+            NonBlockingStepExecutors.ensureBulkhead(KEY, STATUS_PARALLELISM, STATUS_PARALLELISM * 10);
+        }
+    }
+
+    private String superToString() {
+        return super.toString();
+    }
+
     /**
      * Apply the given function to all the active running {@link StepExecution}s in the system.
      *
@@ -183,16 +285,29 @@ public abstract class StepExecution implements Serializable {
 
     /**
      * Applies only to the specific subtypes.
+     * @see StepExecutionIterator#apply(Class, Function)
      */
     public static <T extends StepExecution> ListenableFuture<?> applyAll(final Class<T> type, final Function<T,Void> f) {
-        return applyAll(new Function<StepExecution, Void>() {
-            @Override
-            public Void apply(StepExecution e) {
-                if (type.isInstance(e))
-                    f.apply(type.cast(e));
-                return null;
-            }
-        });
+        List<ListenableFuture<?>> futures = new ArrayList<>();
+        for (StepExecutionIterator i : StepExecutionIterator.all())
+            futures.add(i.apply(type, f));
+        return Futures.allAsList(futures);
+    }
+
+    /**
+     * Like {@link #applyAll(Class, Function)} but with bounded parallelism and deadlines,
+     * so that a slow function on one execution does not delay all the others indefinitely.
+     * The function is run in a dedicated pool rather than in the thread delivering each execution.
+     * @param type the type of executions to visit
+     * @param f the function to apply; it may be interrupted if it runs past a deadline
+     * @param parallelism maximum number of executions to which the function is being applied at once
+     * @param itemTimeout maximum time for the function to run on any one execution, or zero for no limit
+     * @param overallTimeout maximum time for the whole operation; outcomes so far are returned at that point even if some executions have not yet been delivered
+     * @param unit time unit for both timeouts
+     * @return a future giving the outcome for each execution visited, in order of completion
+     */
+    public static <T extends StepExecution> ListenableFuture<List<ApplyOutcome<T>>> applyAll(Class<T> type, Function<T,Void> f, int parallelism, long itemTimeout, long overallTimeout, TimeUnit unit) {
+        return new BoundedApplier<>(type, f, parallelism, unit.toNanos(itemTimeout)).start(StepExecutionIterator.all(), unit.toNanos(overallTimeout));
     }
 
     private static final long serialVersionUID = 1L;
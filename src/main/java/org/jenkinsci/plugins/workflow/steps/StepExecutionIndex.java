@@ -0,0 +1,113 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Index of live {@link StepExecution}s by type, for use by {@link StepExecutionIterator} implementations
+ * so that {@link StepExecutionIterator#apply(Class, com.google.common.base.Function)} visits only matching executions.
+ * Each execution is filed under its concrete class and every supertype (including interfaces) up to {@link StepExecution}.
+ * <p>The engine owning the executions must call {@link #add} when an execution is started or resumed
+ * and {@link #remove} when it completes.
+ * All methods are thread-safe.
+ */
+@Restricted(Beta.class)
+public final class StepExecutionIndex {
+
+    private static final ClassValue<List<Class<?>>> SUPERTYPES = new ClassValue<>() {
+        @Override protected List<Class<?>> computeValue(Class<?> type) {
+            List<Class<?>> r = new ArrayList<>();
+            collect(type, r);
+            return Collections.unmodifiableList(r);
+        }
+        private void collect(Class<?> type, List<Class<?>> r) {
+            if (type == null || type == Object.class || r.contains(type)) {
+                return;
+            }
+            r.add(type);
+            collect(type.getSuperclass(), r);
+            for (Class<?> i : type.getInterfaces()) {
+                collect(i, r);
+            }
+        }
+    };
+
+    private final Map<Class<?>, Set<StepExecution>> byType = new ConcurrentHashMap<>();
+
+    /**
+     * Records a live execution.
+     */
+    public void add(@NonNull StepExecution execution) {
+        for (Class<?> type : SUPERTYPES.get(execution.getClass())) {
+            byType.computeIfAbsent(type, k -> ConcurrentHashMap.newKeySet()).add(execution);
+        }
+    }
+
+    /**
+     * Forgets an execution which has completed.
+     */
+    public void remove(@NonNull StepExecution execution) {
+        for (Class<?> type : SUPERTYPES.get(execution.getClass())) {
+            Set<StepExecution> executions = byType.get(type);
+            if (executions != null) {
+                executions.remove(execution);
+            }
+        }
+    }
+
+    /**
+     * Finds live executions of a given type.
+     * @return a snapshot, possibly empty
+     */
+    public @NonNull <T extends StepExecution> List<T> get(@NonNull Class<T> type) {
+        Set<StepExecution> executions = byType.get(type);
+        if (executions == null) {
+            return Collections.emptyList();
+        }
+        List<T> r = new ArrayList<>(executions.size());
+        for (StepExecution e : executions) {
+            r.add(type.cast(e));
+        }
+        return r;
+    }
+
+    /**
+     * Number of live executions of any type.
+     */
+    public int size() {
+        Set<StepExecution> executions = byType.get(StepExecution.class);
+        return executions == null ? 0 : executions.size();
+    }
+
+}
@@ -2,8 +2,23 @@ package org.jenkinsci.plugins.workflow.steps;
 
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import hudson.ExtensionList;
 import hudson.ExtensionPoint;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import jenkins.util.SystemProperties;
 
 /**
  * Enumerates active running {@link StepExecution}s in the system.
@@ -11,6 +26,11 @@ import hudson.ExtensionPoint;
  * @author Kohsuke Kawaguchi
  */
 public abstract class StepExecutionIterator implements ExtensionPoint {
+
+    private static final Logger LOGGER = Logger.getLogger(StepExecutionIterator.class.getName());
+
+    private static final long STREAM_TIMEOUT_SECONDS = Math.max(1, SystemProperties.getLong(StepExecutionIterator.class.getName() + ".streamTimeoutSeconds", 10L));
+
     /**
      * Finds all the ongoing {@link StepExecution} and apply the function.
      *
@@ -23,6 +43,121 @@ public abstract class StepExecutionIterator implements ExtensionPoint {
      */
     public abstract ListenableFuture<?> apply(Function<StepExecution,Void> f);
 
+    /**
+     * Like {@link #apply(Function)} but only for executions of a given type.
+     * The default implementation visits everything and filters;
+     * implementations able to find matching executions directly, for example using a {@link StepExecutionIndex}, should override it.
+     * @see StepExecution#applyAll(Class, Function)
+     */
+    public <T extends StepExecution> ListenableFuture<?> apply(Class<T> type, Function<T,Void> f) {
+        return apply(new Function<StepExecution, Void>() {
+            @Override
+            public Void apply(StepExecution e) {
+                if (type.isInstance(e))
+                    f.apply(type.cast(e));
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Like {@link #apply(Function)} but only for executions which may match some criteria.
+     * The default implementation visits everything and filters;
+     * implementations should override it to avoid loading builds other than {@link StepExecutionQuery#getRun} if specified,
+     * which also lets the default {@link #stream(StepExecutionQuery)} load one build at a time.
+     * Executions not matching the query may still be delivered.
+     */
+    public ListenableFuture<?> apply(@NonNull StepExecutionQuery query, @NonNull Function<StepExecution, Void> f) {
+        return apply(new Function<StepExecution, Void>() {
+            @Override
+            public Void apply(StepExecution e) {
+                if (query.matches(e))
+                    f.apply(e);
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Enumerates ongoing executions matching some criteria, as a {@link Stream} which may be consumed partially,
+     * for example using {@link Stream#findFirst} or {@link Stream#limit}.
+     * <p>The default implementation returns executions as {@link #apply(StepExecutionQuery, Function)} delivers them,
+     * so a short-circuiting operation need not wait for the rest.
+     * The stream ends once delivery completes, or when {@code StepExecutionIterator.streamTimeoutSeconds} (default 10) have passed,
+     * in which case a warning is logged and any executions delivered later are not included.
+     * @param query criteria which returned executions must {@linkplain StepExecutionQuery#matches match}
+     * @return a sequential stream of matching executions
+     */
+    public Stream<StepExecution> stream(@NonNull StepExecutionQuery query) {
+        return stream(query, STREAM_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    final Stream<StepExecution> stream(@NonNull StepExecutionQuery query, long timeout, @NonNull TimeUnit unit) {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        BlockingQueue<Object> delivered = new LinkedBlockingQueue<>();
+        ListenableFuture<?> done;
+        try {
+            done = apply(query, new Function<StepExecution, Void>() {
+                @Override
+                public Void apply(StepExecution e) {
+                    delivered.add(e);
+                    return null;
+                }
+            });
+        } catch (RuntimeException x) {
+            LOGGER.log(Level.WARNING, "failed to enumerate executions from " + this, x);
+            return Stream.empty();
+        }
+        // Queued after every execution, since the future completes only once they have all been delivered.
+        done.addListener(() -> delivered.add(done), MoreExecutors.directExecutor());
+        Spliterator<StepExecution> executions = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private boolean finished;
+            @Override public boolean tryAdvance(Consumer<? super StepExecution> action) {
+                while (!finished) {
+                    Object next;
+                    try {
+                        next = delivered.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    } catch (InterruptedException x) {
+                        Thread.currentThread().interrupt();
+                        finished = true;
+                        break;
+                    }
+                    if (next == null) {
+                        LOGGER.log(Level.WARNING, "timed out enumerating executions from {0}; results are incomplete", StepExecutionIterator.this);
+                        finished = true;
+                    } else if (next == done) {
+                        finished = true;
+                        try {
+                            done.get();
+                        } catch (ExecutionException | CancellationException x) {
+                            LOGGER.log(Level.WARNING, "failed to enumerate executions from " + StepExecutionIterator.this, x);
+                        } catch (InterruptedException x) {
+                            Thread.currentThread().interrupt();
+                        }
+                    } else {
+                        action.accept((StepExecution) next);
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(executions, false).filter(query::matches);
+    }
+
+    /**
+     * Enumerates ongoing executions matching some criteria from all iterators.
+     * Iterators are consulted lazily, so a short-circuiting operation need not consult them all.
+     * <p>The result may be incomplete: an iterator using the default {@link #stream(StepExecutionQuery)}
+     * contributes only the executions it delivers within {@code StepExecutionIterator.streamTimeoutSeconds},
+     * and one which fails contributes what it delivered before failing; either case is logged as a warning.
+     * Callers needing every execution regardless of time taken should use {@link StepExecution#applyAll(Class, Function)}.
+     * @see #stream(StepExecutionQuery)
+     */
+    public static Stream<StepExecution> streamAll(@NonNull StepExecutionQuery query) {
+        return all().stream().flatMap(i -> i.stream(query));
+    }
+
     public static ExtensionList<StepExecutionIterator> all() {
         return ExtensionList.lookup(StepExecutionIterator.class);
     }
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Run;
+import java.io.IOException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.Beta;
+
+/**
+ * Criteria for {@link StepExecutionIterator#stream}.
+ * Immutable; each method returns a narrowed copy.
+ * Implementations of {@link StepExecutionIterator} should use {@link #getRun} to avoid loading other builds at all,
+ * and may use the other criteria to skip work, but must in any case only return executions which {@link #matches}.
+ */
+@Restricted(Beta.class)
+public final class StepExecutionQuery {
+
+    private static final Logger LOGGER = Logger.getLogger(StepExecutionQuery.class.getName());
+
+    public enum State {
+        /**
+         * {@link StepExecution#blocksRestart} is true, typically because the step is running code in a background thread.
+         */
+        BUSY,
+        /**
+         * {@link StepExecution#blocksRestart} is false, typically because the step is waiting for an external event or a body.
+         */
+        IDLE
+    }
+
+    private static final StepExecutionQuery ALL = new StepExecutionQuery(null, null, null);
+
+    private final @CheckForNull Run<?, ?> run;
+    private final @CheckForNull String functionName;
+    private final @CheckForNull State state;
+
+    private StepExecutionQuery(Run<?, ?> run, String functionName, State state) {
+        this.run = run;
+        this.functionName = functionName;
+        this.state = state;
+    }
+
+    /**
+     * Matches every execution.
+     */
+    public static @NonNull StepExecutionQuery all() {
+        return ALL;
+    }
+
+    /**
+     * Restricts to executions in a given build.
+     */
+    public @NonNull StepExecutionQuery run(@NonNull Run<?, ?> run) {
+        return new StepExecutionQuery(run, functionName, state);
+    }
+
+    /**
+     * Restricts to executions of a given kind of step.
+     * @param functionName a {@link StepDescriptor#getFunctionName}
+     */
+    public @NonNull StepExecutionQuery functionName(@NonNull String functionName) {
+        return new StepExecutionQuery(run, functionName, state);
+    }
+
+    /**
+     * Restricts to executions in a given state.
+     */
+    public @NonNull StepExecutionQuery state(@NonNull State state) {
+        return new StepExecutionQuery(run, functionName, state);
+    }
+
+    public @CheckForNull Run<?, ?> getRun() {
+        return run;
+    }
+
+    public @CheckForNull String getFunctionName() {
+        return functionName;
+    }
+
+    public @CheckForNull State getState() {
+        return state;
+    }
+
+    /**
+     * Checks whether an execution meets the criteria.
+     * The build is checked last, using {@link StepContext#get}, so implementations which already know the build should check the other criteria themselves.
+     */
+    public boolean matches(@NonNull StepExecution execution) {
+        if (functionName != null && !functionName.equals(execution.getFunctionName())) {
+            return false;
+        }
+        if (state != null && execution.blocksRestart() != (state == State.BUSY)) {
+            return false;
+        }
+        if (run != null) {
+            try {
+                return run.equals(execution.getContext().get(Run.class));
+            } catch (IOException x) {
+                LOGGER.log(Level.FINE, "could not check build of " + execution, x);
+                return false;
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override public String toString() {
+        return "StepExecutionQuery[run=" + run + ", functionName=" + functionName + ", state=" + state + "]";
+    }
+
+}
@@ -24,11 +24,16 @@
 
 package org.jenkinsci.plugins.workflow.steps;
 
+import java.io.Serializable;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * Builder for simple {@link StepExecution} implementations.
  * Convenient for use from {@link Step#start} when a permanent serial form is unimportant.
  * Use {@link StepContext#get} to access contextual objects as usual.
  * <p>The lambda arguments may refer to {@link Step} parameter fields directly.
+ * <p>{@link StepExecution#getFunctionName} is taken from the class calling the builder method, normally the {@link Step}.
  */
 public class StepExecutions {
 
@@ -65,9 +70,14 @@ public class StepExecutions {
     private static class SynchronousImpl extends SynchronousStepExecution<Object> {
         private static final long serialVersionUID = 1;
         private transient final SynchronousBody body;
+        private final Definer definer;
         SynchronousImpl(StepContext context, SynchronousBody body) {
             super(context);
             this.body = body;
+            definer = new Definer(body);
+        }
+        @Override public String getFunctionName() {
+            return definer != null ? definer.getFunctionName() : null;
         }
         @Override protected Object run() throws Exception {
             return body.call(getContext());
@@ -91,15 +101,50 @@ public class StepExecutions {
     private static class SynchronousNonBlockingImpl extends SynchronousNonBlockingStepExecution<Object> {
         private static final long serialVersionUID = 1;
         private transient final SynchronousBody body;
+        private final Definer definer;
         SynchronousNonBlockingImpl(StepContext context, SynchronousBody body) {
             super(context);
             this.body = body;
+            definer = new Definer(body);
+        }
+        @Override public String getFunctionName() {
+            return definer != null ? definer.getFunctionName() : null;
         }
         @Override protected Object run() throws Exception {
             return body.call(getContext());
         }
     }
 
+    @FunctionalInterface
+    public interface CompletionStageBody {
+        CompletionStage<?> call(StepContext context) throws Exception;
+    }
+
+    /**
+     * Creates a {@link CompletionStageStepExecution} returning the result of a given stage.
+     */
+    public static StepExecution completionStage(StepContext context, CompletionStageBody body) {
+        return new CompletionStageImpl(context, body);
+    }
+
+    private static class CompletionStageImpl extends CompletionStageStepExecution<Object> {
+        private static final long serialVersionUID = 1;
+        private transient final CompletionStageBody body;
+        private final Definer definer;
+        CompletionStageImpl(StepContext context, CompletionStageBody body) {
+            super(context);
+            this.body = body;
+            definer = new Definer(body);
+        }
+        @Override public String getFunctionName() {
+            return definer != null ? definer.getFunctionName() : null;
+        }
+        @SuppressWarnings("unchecked")
+        @Override protected CompletionStage<Object> startAsync() throws Exception {
+            return (CompletionStage<Object>) body.call(getContext());
+        }
+    }
+
     @FunctionalInterface
     public interface BlockBody {
         void call(StepContext context, BodyInvoker invoker) throws Exception;
@@ -116,9 +161,14 @@ public class StepExecutions {
     private static class BlockImpl extends StepExecution {
         private static final long serialVersionUID = 1;
         private transient final BlockBody body;
+        private final Definer definer;
         BlockImpl(StepContext context, BlockBody body) {
             super(context);
             this.body = body;
+            definer = new Definer(body);
+        }
+        @Override public String getFunctionName() {
+            return definer != null ? definer.getFunctionName() : null;
         }
         @Override public boolean start() throws Exception {
             StepContext context = getContext();
@@ -131,4 +181,45 @@ public class StepExecutions {
 
     private StepExecutions() {}
 
+    /**
+     * Remembers which code created an execution so that its function name may be looked up,
+     * even if the {@link StepDescriptor} was not yet loaded when the execution was created.
+     */
+    private static final class Definer implements Serializable {
+        /**
+         * The code which created a body of a given class, found once per class, since walking the stack is costly.
+         * A lambda or anonymous class has a single creation site; a named class passed from several places is attributed to the first.
+         */
+        private static final ClassValue<AtomicReference<Class<?>>> CALLERS = new ClassValue<>() {
+            @Override protected AtomicReference<Class<?>> computeValue(Class<?> type) {
+                return new AtomicReference<>();
+            }
+        };
+        private static Class<?> callerOf(Class<?> bodyType) {
+            AtomicReference<Class<?>> cached = CALLERS.get(bodyType);
+            Class<?> caller = cached.get();
+            if (caller == null) {
+                caller = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> frames.
+                    map(StackWalker.StackFrame::getDeclaringClass).
+                    filter(c -> c.getNestHost() != StepExecutions.class).
+                    findFirst().orElse(bodyType));
+                cached.set(caller);
+            }
+            return caller;
+        }
+        private static final long serialVersionUID = 1;
+        private transient final Class<?> type;
+        private volatile String functionName;
+        Definer(Object body) {
+            type = callerOf(body.getClass());
+            functionName = StepFunctionNames.forClass(type);
+        }
+        String getFunctionName() {
+            if (functionName == null && type != null) {
+                functionName = StepFunctionNames.forClass(type);
+            }
+            return functionName;
+        }
+    }
+
 }
@@ -0,0 +1,124 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.ExtensionListListener;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import jenkins.model.Jenkins;
+
+/**
+ * Finds the {@link StepDescriptor#getFunctionName} for code defined by some {@link Step}.
+ * Lookups, including failed ones, are remembered until the list of {@link StepDescriptor}s changes,
+ * since a descriptor may not yet be loaded when a class is first seen.
+ */
+final class StepFunctionNames {
+
+    private static final class Lookup {
+        final @CheckForNull String name;
+        final long version;
+        Lookup(String name, long version) {
+            this.name = name;
+            this.version = version;
+        }
+    }
+
+    private static final ClassValue<AtomicReference<Lookup>> CACHE = new ClassValue<>() {
+        @Override protected AtomicReference<Lookup> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private static final AtomicLong version = new AtomicLong();
+
+    private static volatile boolean listening;
+
+    /**
+     * Looks for a {@link Step} class which is the given class or encloses it.
+     * Failing that, for example for a lambda, looks for the only {@link Step} class in the same nest.
+     * @return a function name, or null if none could be found
+     */
+    static @CheckForNull String forClass(@NonNull Class<?> type) {
+        if (Jenkins.getInstanceOrNull() == null) {
+            return null;
+        }
+        listenForDescriptors();
+        long current = version.get();
+        AtomicReference<Lookup> cached = CACHE.get(type);
+        Lookup lookup = cached.get();
+        if (lookup == null || lookup.version != current) {
+            lookup = new Lookup(compute(type), current);
+            cached.set(lookup);
+        }
+        return lookup.name;
+    }
+
+    /**
+     * Makes sure cached lookups are discarded if {@link StepDescriptor}s are added or removed.
+     */
+    private static void listenForDescriptors() {
+        if (listening) {
+            return;
+        }
+        synchronized (StepFunctionNames.class) {
+            if (!listening) {
+                StepDescriptor.all().addListener(new ExtensionListListener() {
+                    @Override public void onChange() {
+                        version.incrementAndGet();
+                    }
+                });
+                listening = true;
+            }
+        }
+    }
+
+    private static @CheckForNull String compute(Class<?> type) {
+        Iterable<StepDescriptor> descriptors = StepDescriptor.all();
+        for (Class<?> c = type; c != null; c = c.getEnclosingClass()) {
+            for (StepDescriptor d : descriptors) {
+                if (d.clazz == c) {
+                    return d.getFunctionName();
+                }
+            }
+        }
+        Class<?> host = type.getNestHost();
+        String found = null;
+        for (StepDescriptor d : descriptors) {
+            if (d.clazz.getNestHost() == host) {
+                if (found != null) {
+                    return null; // ambiguous
+                }
+                found = d.getFunctionName();
+            }
+        }
+        return found;
+    }
+
+    private StepFunctionNames() {}
+
+}
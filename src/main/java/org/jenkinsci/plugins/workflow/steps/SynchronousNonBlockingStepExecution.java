@@ -2,28 +2,29 @@ package org.jenkinsci.plugins.workflow.steps;
 
 import hudson.security.ACL;
 import hudson.security.ACLContext;
-import hudson.util.ClassLoaderSanityThreadFactory;
-import hudson.util.DaemonThreadFactory;
-import hudson.util.NamingThreadFactory;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import jenkins.model.Jenkins;
 import org.acegisecurity.Authentication;
 
 /**
  * Similar to {@link SynchronousStepExecution} (it executes synchronously too) but it does not block the CPS VM thread.
+ * {@link #run} is called from a thread (or virtual thread) managed by {@link NonBlockingStepExecutors}.
  * @param <T> the type of the return value (may be {@link Void})
  * @see StepExecutions#synchronousNonBlocking
  */
 public abstract class SynchronousNonBlockingStepExecution<T> extends StepExecution {
 
+    private static final long serialVersionUID = -6015412160384845577L; // as computed for the original class, so that saved subclasses still load
+
     private transient volatile Future<?> task;
     private transient String threadName;
     private transient volatile Throwable stopCause;
 
-    private static ExecutorService executorService;
+    private static final Logger LOGGER = Logger.getLogger(SynchronousNonBlockingStepExecution.class.getName());
 
     protected SynchronousNonBlockingStepExecution(@NonNull StepContext context) {
         super(context);
@@ -36,28 +37,53 @@ public abstract class SynchronousNonBlockingStepExecution<T> extends StepExecuti
      */
     protected abstract T run() throws Exception;
 
+    /**
+     * {@inheritDoc}
+     * <p>If a {@link StepDeadline} is in effect, the step is {@linkplain #stop stopped} once it passes.
+     */
     @Override
     public final boolean start() throws Exception {
         final Authentication auth = Jenkins.getAuthentication();
-        task = getExecutorService().submit(() -> {
-            threadName = Thread.currentThread().getName();
-            try {
-                T ret;
-                try (ACLContext acl = ACL.as(auth)) {
-                    ret = run();
-                }
-                getContext().onSuccess(ret);
-            } catch (Throwable x) {
-                if (stopCause == null) {
-                    getContext().onFailure(x);
-                } else {
-                    stopCause.addSuppressed(x);
+        StepDeadline deadline = getContext().getDeadline();
+        StepDeadline.Registration expiry = deadline != null ? deadline.onExpiry(() -> stopForDeadline(deadline)) : null;
+        try {
+            task = NonBlockingStepExecutors.submit(this, () -> {
+                threadName = Thread.currentThread().getName();
+                try {
+                    T ret;
+                    try (ACLContext acl = ACL.as(auth)) {
+                        ret = run();
+                    }
+                    getContext().onSuccess(ret);
+                } catch (Throwable x) {
+                    if (stopCause == null) {
+                        getContext().onFailure(x);
+                    } else {
+                        stopCause.addSuppressed(x);
+                    }
+                } finally {
+                    if (expiry != null) {
+                        expiry.cancel();
+                    }
                 }
+            });
+        } catch (RuntimeException x) {
+            if (expiry != null) {
+                expiry.cancel();
             }
-        });
+            throw x;
+        }
         return false;
     }
 
+    private void stopForDeadline(StepDeadline deadline) {
+        try {
+            stop(deadline.exceeded());
+        } catch (Exception x) {
+            LOGGER.log(Level.WARNING, "failed to stop " + this + " after its deadline", x);
+        }
+    }
+
     /**
      * If the computation is going synchronously, try to cancel that.
      */
@@ -87,11 +113,11 @@ public abstract class SynchronousNonBlockingStepExecution<T> extends StepExecuti
         return threadName != null;
     }
 
-    static synchronized ExecutorService getExecutorService() {
-        if (executorService == null) {
-            executorService = Executors.newCachedThreadPool(new NamingThreadFactory(new ClassLoaderSanityThreadFactory(new DaemonThreadFactory()), "org.jenkinsci.plugins.workflow.steps.SynchronousNonBlockingStepExecution"));
-        }
-        return executorService;
+    /**
+     * @see NonBlockingStepExecutors
+     */
+    static ExecutorService getExecutorService() {
+        return NonBlockingStepExecutors.get();
     }
 
 }
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.console.ConsoleLogFilter;
+import hudson.console.LineTransformationOutputStream;
+import hudson.model.AbstractBuild;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BodyInvokerTest {
+
+    /** Replaces one string by another in each line. */
+    private static final class Replace extends ConsoleLogFilter implements LineConsoleLogFilter, Serializable {
+        private static final long serialVersionUID = 1;
+        private final String from, to;
+        Replace(String from, String to) {
+            this.from = from;
+            this.to = to;
+        }
+        @Override public Transformer newTransformer() {
+            return (line, len, out) -> out.write(new String(line, 0, len, StandardCharsets.UTF_8).replace(from, to).getBytes(StandardCharsets.UTF_8));
+        }
+        @SuppressWarnings("rawtypes")
+        @Override public OutputStream decorateLogger(AbstractBuild build, OutputStream logger) throws IOException, InterruptedException {
+            Transformer transformer = newTransformer();
+            return new LineTransformationOutputStream.Delegating(logger) {
+                @Override protected void eol(byte[] b, int len) throws IOException {
+                    transformer.transform(b, len, out);
+                }
+            };
+        }
+    }
+
+    /** Prefixes each line, without implementing {@link LineConsoleLogFilter}. */
+    private static final class Prefix extends ConsoleLogFilter implements Serializable {
+        private static final long serialVersionUID = 1;
+        private final String prefix;
+        Prefix(String prefix) {
+            this.prefix = prefix;
+        }
+        @SuppressWarnings("rawtypes")
+        @Override public OutputStream decorateLogger(AbstractBuild build, OutputStream logger) {
+            return new LineTransformationOutputStream.Delegating(logger) {
+                @Override protected void eol(byte[] b, int len) throws IOException {
+                    out.write(prefix.getBytes(StandardCharsets.UTF_8));
+                    out.write(b, 0, len);
+                }
+            };
+        }
+    }
+
+    private static String filter(ConsoleLogFilter filter, String text) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (OutputStream os = filter.decorateLogger(null, baos)) {
+            os.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return baos.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test public void mergeConsoleLogFilters() throws Exception {
+        ConsoleLogFilter[] filters = {new Replace("a", "b"), new Replace("b", "c"), new Prefix("> "), new Replace(">", "}"), new Replace("c", "d"), new Prefix("# ")};
+        ConsoleLogFilter merged = null;
+        for (ConsoleLogFilter f : filters) {
+            merged = BodyInvoker.mergeConsoleLogFilters(merged, f);
+        }
+        // later filters see the output first
+        assertEquals("> # bcdd\n> # xyz\n", filter(merged, "abcd\nxyz\n"));
+        StringBuilder longLine = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            longLine.append('a');
+        }
+        assertEquals("> # " + longLine.toString().replace('a', 'b') + "\n", filter(merged, longLine + "\n"));
+    }
+
+    @Test public void legacyMergedForm() throws Exception {
+        // Serialized by the original implementation: merge(merge(Prefix("> "), Prefix("# ")), Prefix("$ "))
+        ConsoleLogFilter loaded;
+        try (ObjectInputStream ois = new ObjectInputStream(BodyInvokerTest.class.getResourceAsStream("BodyInvokerTest/legacyMerged.ser"))) {
+            loaded = (ConsoleLogFilter) ois.readObject();
+        }
+        assertFalse(loaded.getClass().getName(), loaded.getClass().getName().endsWith("$MergedFilter"));
+        ConsoleLogFilter current = BodyInvoker.mergeConsoleLogFilters(BodyInvoker.mergeConsoleLogFilters(new Prefix("> "), new Prefix("# ")), new Prefix("$ "));
+        assertEquals(filter(current, "abc\n"), filter(loaded, "abc\n"));
+        assertEquals("> # $ abc\n", filter(loaded, "abc\n"));
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(loaded);
+        }
+        ConsoleLogFilter reloaded = (ConsoleLogFilter) new ObjectInputStream(new ByteArrayInputStream(baos.toByteArray())).readObject();
+        assertEquals(filter(current, "abc\n"), filter(reloaded, "abc\n"));
+    }
+
+}
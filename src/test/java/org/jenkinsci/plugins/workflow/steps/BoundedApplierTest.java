@@ -0,0 +1,154 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class BoundedApplierTest {
+
+    private static final class Exec extends StepExecution {
+        final String name;
+        Exec(String name) {
+            super(mock(StepContext.class));
+            this.name = name;
+        }
+        @Override public boolean start() throws Exception {
+            return false;
+        }
+    }
+
+    private static final class FixedIterator extends StepExecutionIterator {
+        private final List<StepExecution> executions;
+        private final ListenableFuture<?> done;
+        FixedIterator(ListenableFuture<?> done, StepExecution... executions) {
+            this.executions = Arrays.asList(executions);
+            this.done = done;
+        }
+        @Override public ListenableFuture<?> apply(Function<StepExecution, Void> f) {
+            executions.forEach(f::apply);
+            return done;
+        }
+    }
+
+    private static Map<String, ApplyOutcome.Status> statuses(List<ApplyOutcome<Exec>> outcomes) {
+        Map<String, ApplyOutcome.Status> r = new HashMap<>();
+        for (ApplyOutcome<Exec> o : outcomes) {
+            r.put(o.getExecution().name, o.getStatus());
+        }
+        return r;
+    }
+
+    @Test public void outcomes() throws Exception {
+        AtomicInteger concurrent = new AtomicInteger(), peak = new AtomicInteger();
+        Function<Exec, Void> f = e -> {
+            peak.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                switch (e.name) {
+                case "fail":
+                    throw new IllegalStateException();
+                case "hang":
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    break;
+                default:
+                    Thread.sleep(10);
+                }
+            } catch (InterruptedException x) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            return null;
+        };
+        List<ApplyOutcome<Exec>> outcomes = new BoundedApplier<>(Exec.class, f, 2, TimeUnit.MILLISECONDS.toNanos(500))
+            .start(Collections.singletonList(new FixedIterator(Futures.immediateFuture(null), new Exec("a"), new Exec("fail"), new Exec("hang"), new Exec("b"), new Exec("c"))), TimeUnit.MINUTES.toNanos(1))
+            .get(30, TimeUnit.SECONDS);
+        Map<String, ApplyOutcome.Status> expected = new HashMap<>();
+        expected.put("a", ApplyOutcome.Status.SUCCEEDED);
+        expected.put("fail", ApplyOutcome.Status.FAILED);
+        expected.put("hang", ApplyOutcome.Status.TIMED_OUT);
+        expected.put("b", ApplyOutcome.Status.SUCCEEDED);
+        expected.put("c", ApplyOutcome.Status.SUCCEEDED);
+        assertEquals(expected, statuses(outcomes));
+        assertTrue(peak.get() <= 2);
+    }
+
+    @Test public void timedOutItemKeepsSlotUntilExit() throws Exception {
+        AtomicInteger concurrent = new AtomicInteger(), peak = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Exec, Void> f = e -> {
+            peak.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            try {
+                if (e.name.equals("stuck")) {
+                    // ignores interruption
+                    while (true) {
+                        try {
+                            release.await();
+                            break;
+                        } catch (InterruptedException x) {
+                            // keep waiting
+                        }
+                    }
+                }
+            } finally {
+                concurrent.decrementAndGet();
+            }
+            return null;
+        };
+        ListenableFuture<List<ApplyOutcome<Exec>>> outcomes = new BoundedApplier<>(Exec.class, f, 1, TimeUnit.MILLISECONDS.toNanos(100))
+            .start(Collections.singletonList(new FixedIterator(Futures.immediateFuture(null), new Exec("stuck"), new Exec("b"))), TimeUnit.MINUTES.toNanos(1));
+        Thread.sleep(1000);
+        assertFalse("b must wait for the thread of stuck to exit", outcomes.isDone());
+        release.countDown();
+        Map<String, ApplyOutcome.Status> expected = new HashMap<>();
+        expected.put("stuck", ApplyOutcome.Status.TIMED_OUT);
+        expected.put("b", ApplyOutcome.Status.SUCCEEDED);
+        assertEquals(expected, statuses(outcomes.get(30, TimeUnit.SECONDS)));
+        assertEquals(1, peak.get());
+    }
+
+    @Test public void overallDeadline() throws Exception {
+        Function<Exec, Void> f = e -> null;
+        // an iterator which never finishes loading
+        List<ApplyOutcome<Exec>> outcomes = new BoundedApplier<>(Exec.class, f, 1, 0)
+            .start(Collections.singletonList(new FixedIterator(SettableFuture.create(), new Exec("a"))), TimeUnit.MILLISECONDS.toNanos(500))
+            .get(30, TimeUnit.SECONDS);
+        assertEquals(Collections.singletonMap("a", ApplyOutcome.Status.SUCCEEDED), statuses(outcomes));
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.model.Result;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.jenkinsci.plugins.workflow.job.WorkflowRun;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.BuildWatcher;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.kohsuke.stapler.DataBoundConstructor;
+import static org.junit.Assert.assertTrue;
+
+public class CompletionStageStepExecutionTest {
+
+    @ClassRule public static BuildWatcher buildWatcher = new BuildWatcher();
+
+    @Rule public JenkinsRule r = new JenkinsRule();
+
+    private static final Map<String, CompletableFuture<Object>> futures = new ConcurrentHashMap<>();
+
+    private static CompletableFuture<Object> waitForStart(String id, WorkflowRun b) throws Exception {
+        while (!futures.containsKey(id)) {
+            if (!b.isBuilding()) {
+                throw new AssertionError();
+            }
+            Thread.sleep(100);
+        }
+        return futures.get(id);
+    }
+
+    @Test public void success() throws Exception {
+        WorkflowJob p = r.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("echo(/got ${awaitFuture 'success'}/)", true));
+        WorkflowRun b = p.scheduleBuild2(0).waitForStart();
+        waitForStart("success", b).complete("result");
+        r.assertLogContains("got result", r.assertBuildStatusSuccess(r.waitForCompletion(b)));
+    }
+
+    @Test public void failure() throws Exception {
+        WorkflowJob p = r.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("awaitFuture 'failure'", true));
+        WorkflowRun b = p.scheduleBuild2(0).waitForStart();
+        waitForStart("failure", b).completeExceptionally(new IllegalStateException("oops"));
+        r.assertLogContains("oops", r.assertBuildStatus(Result.FAILURE, r.waitForCompletion(b)));
+    }
+
+    @Test public void stop() throws Exception {
+        WorkflowJob p = r.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("awaitFuture 'stop'", true));
+        WorkflowRun b = p.scheduleBuild2(0).waitForStart();
+        CompletableFuture<Object> future = waitForStart("stop", b);
+        b.getExecutor().interrupt();
+        r.assertBuildStatus(Result.ABORTED, r.waitForCompletion(b));
+        r.waitUntilNoActivity();
+        assertTrue(future.isCancelled());
+    }
+
+    public static final class AwaitFutureStep extends Step {
+        private final String id;
+        @DataBoundConstructor public AwaitFutureStep(String id) {
+            this.id = id;
+        }
+        @Override public StepExecution start(StepContext context) {
+            return StepExecutions.completionStage(context, c -> futures.computeIfAbsent(id, k -> new CompletableFuture<>()));
+        }
+        @TestExtension public static final class DescriptorImpl extends StepDescriptor {
+            @Override public String getFunctionName() {
+                return "awaitFuture";
+            }
+            @Override public Set<? extends Class<?>> getRequiredContext() {
+                return Collections.emptySet();
+            }
+        }
+    }
+
+}
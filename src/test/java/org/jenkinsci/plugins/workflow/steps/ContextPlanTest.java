@@ -0,0 +1,66 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.EnvVars;
+import hudson.FilePath;
+import hudson.Launcher;
+import hudson.model.Run;
+import hudson.model.TaskListener;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ContextPlanTest {
+
+    @Test public void missing() {
+        ContextPlan plan = new ContextPlan(Set.of(TaskListener.class, Run.class, Launcher.class, FilePath.class), Set.of());
+        assertEquals(List.of(FilePath.class, Launcher.class, Run.class, TaskListener.class), plan.getRequired());
+        Map<Class<?>, Object> values = new HashMap<>();
+        values.put(FilePath.class, null);
+        values.put(Launcher.class, null);
+        values.put(Run.class, null);
+        values.put(TaskListener.class, TaskListener.NULL);
+        assertEquals(List.of(FilePath.class, Launcher.class, Run.class), plan.missing(new ContextValues(values)));
+        MissingContextVariableException x = new MissingContextVariableException(plan.missing(new ContextValues(values)), null);
+        assertEquals(FilePath.class, x.getType());
+        assertEquals(List.of(FilePath.class, Launcher.class, Run.class), x.getTypes());
+    }
+
+    @Test public void subtyping() {
+        ContextPlan plan = new ContextPlan(Set.of(EnvVars.class), Set.of(EnvVars.class, TaskListener.class));
+        assertTrue(plan.provides(EnvVars.class));
+        assertTrue(plan.provides(Map.class));
+        assertTrue(plan.provides(TaskListener.class));
+        assertFalse(plan.provides(FilePath.class));
+        assertTrue(plan.requires(Map.class));
+        assertFalse(plan.requires(TaskListener.class));
+    }
+
+}
@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.model.TaskListener;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ContextResolutionTraceTest {
+
+    @After public void reset() {
+        ContextResolutionTrace.setEnabled(false);
+        ContextResolutionTrace.reset();
+    }
+
+    @Test public void disabledByDefault() {
+        ContextResolutionTrace.record("p#1", "echo", TaskListener.class, "override", 1000, ContextResolutionTrace.Outcome.VALUE);
+        assertTrue(ContextResolutionTrace.getForRun("p#1").isEmpty());
+        assertTrue(ContextResolutionTrace.getForFunctionName("echo").isEmpty());
+    }
+
+    @Test public void aggregation() throws Exception {
+        ContextResolutionTrace.setEnabled(true);
+        ContextResolutionTrace.record("p#1", "echo", TaskListener.class, "override", TimeUnit.MICROSECONDS.toNanos(3), ContextResolutionTrace.Outcome.VALUE);
+        ContextResolutionTrace.record("p#1", "echo", TaskListener.class, "override", TimeUnit.MICROSECONDS.toNanos(5), ContextResolutionTrace.Outcome.NULL);
+        ContextResolutionTrace.record("p#2", "echo", TaskListener.class, "dyn", 0, ContextResolutionTrace.Outcome.RECURSION_CUT);
+        DynamicContext dyn = new DynamicContext() {
+            @Override public <T> T get(Class<T> key, DelegatedContext context) {
+                return key == String.class ? key.cast("x") : null;
+            }
+        };
+        assertEquals("x", ContextResolutionTrace.get(dyn, String.class, null, "p#1", "sh"));
+        Map<String, Map<String, ContextResolutionTrace.Stats>> p1 = ContextResolutionTrace.getForRun("p#1");
+        ContextResolutionTrace.Stats listener = p1.get(TaskListener.class.getName()).get("override");
+        assertEquals(2, listener.getCount());
+        assertEquals(1, listener.getNulls());
+        assertEquals(0, listener.getRecursionCuts());
+        assertEquals(5_000, listener.getMaxNanos());
+        assertEquals(8_000, listener.getTotalNanos());
+        assertEquals(4_000, listener.getMeanNanos());
+        assertEquals(1, p1.get(String.class.getName()).get(dyn.getClass().getName()).getCount());
+        Map<String, Map<String, ContextResolutionTrace.Stats>> echo = ContextResolutionTrace.getForFunctionName("echo");
+        assertEquals(2, echo.get(TaskListener.class.getName()).size());
+        assertEquals(1, echo.get(TaskListener.class.getName()).get("dyn").getRecursionCuts());
+    }
+
+}
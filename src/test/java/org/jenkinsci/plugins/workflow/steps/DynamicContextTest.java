@@ -24,7 +24,10 @@
 
 package org.jenkinsci.plugins.workflow.steps;
 
+import hudson.EnvVars;
+import hudson.model.TaskListener;
 import java.io.IOException;
+import java.util.List;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
@@ -54,4 +57,35 @@ public class DynamicContextTest {
         assertNull("nor via an unrelated supertype", ctx.get(Runnable.class, nullContext));
     }
 
+    @Test public void index() throws Exception {
+        class EnvVarsContext extends DynamicContext.Typed<EnvVars> {
+            @Override protected Class<EnvVars> type() {
+                return EnvVars.class;
+            }
+            @Override protected EnvVars get(DelegatedContext context) {
+                return new EnvVars();
+            }
+        }
+        class ListenerContext extends DynamicContext.Typed<TaskListener> {
+            @Override protected Class<TaskListener> type() {
+                return TaskListener.class;
+            }
+            @Override protected TaskListener get(DelegatedContext context) {
+                return TaskListener.NULL;
+            }
+        }
+        DynamicContext untyped = new DynamicContext() {
+            @Override public <T> T get(Class<T> key, DelegatedContext context) {
+                return null;
+            }
+        };
+        DynamicContext env = new EnvVarsContext();
+        DynamicContext listener = new ListenerContext();
+        DynamicContextIndex index = new DynamicContextIndex(List.of(env, untyped, listener));
+        assertEquals(List.of(untyped, listener), index.get(TaskListener.class));
+        assertEquals(List.of(env, untyped), index.get(EnvVars.class));
+        assertEquals(List.of(env, untyped, listener), index.get(Object.class));
+        assertEquals(List.of(untyped), index.get(Runnable.class));
+    }
+
 }
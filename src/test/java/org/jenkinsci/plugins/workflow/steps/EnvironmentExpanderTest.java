@@ -0,0 +1,264 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.EnvVars;
+import hudson.model.TaskListener;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.jvnet.hudson.test.MemoryAssert;
+import static org.junit.Assert.*;
+
+public class EnvironmentExpanderTest {
+
+    private static final class Secret extends EnvironmentExpander {
+        private static final long serialVersionUID = 1;
+        private final String name;
+        Secret(String name) {
+            this.name = name;
+        }
+        @Override public void expand(EnvVars env) {
+            env.put(name, "s3cr3t");
+        }
+        @Override public Set<String> getSensitiveVariables() {
+            return Set.of(name);
+        }
+    }
+
+    private static EnvVars expand(EnvironmentExpander expander, Map<String, String> initial) throws Exception {
+        EnvVars env = new EnvVars(initial);
+        expander.expand(env);
+        return env;
+    }
+
+    @Test public void mergeOrder() throws Exception {
+        EnvironmentExpander e = EnvironmentExpander.merge(null, EnvironmentExpander.constant(Map.of("PATH+A", "/a", "X", "1")));
+        e = EnvironmentExpander.merge(e, EnvironmentExpander.constant(Map.of("PATH+B", "/b")));
+        e = EnvironmentExpander.merge(e, new Secret("TOKEN"));
+        e = EnvironmentExpander.merge(e, EnvironmentExpander.constant(Map.of("X", "2", "Y", "")));
+        EnvVars env = expand(e, Map.of("PATH", "/usr/bin", "Y", "gone"));
+        assertEquals(String.join(File.pathSeparator, "/b", "/a", "/usr/bin"), env.get("PATH"));
+        assertEquals("2", env.get("X"));
+        assertEquals("s3cr3t", env.get("TOKEN"));
+        assertFalse(env.containsKey("Y"));
+        assertEquals(Set.of("TOKEN"), e.getSensitiveVariables());
+    }
+
+    @Test public void foldedConstantsMatchSequentialApplication() throws Exception {
+        Map<String, String> first = new TreeMap<>(Map.of("PATH+A", "/a", "X", "1", "Z", "z"));
+        Map<String, String> second = new TreeMap<>(Map.of("PATH", "/p", "PATH+B", "/b", "X", ""));
+        EnvironmentExpander a = EnvironmentExpander.constant(first);
+        EnvironmentExpander b = EnvironmentExpander.constant(second);
+        EnvVars expected = expand(b, expand(a, Map.of("PATH", "/usr/bin", "X", "0")));
+        assertEquals(expected, expand(EnvironmentExpander.merge(a, b), Map.of("PATH", "/usr/bin", "X", "0")));
+    }
+
+    @Test public void deepNesting() throws Exception {
+        EnvironmentExpander e = null;
+        for (int i = 0; i < 1000; i++) {
+            e = EnvironmentExpander.merge(e, i % 10 == 0 ? new Secret("S" + i) : EnvironmentExpander.constant(Map.of("V" + i, "v" + i, "LAST", "" + i)));
+        }
+        EnvVars env = expand(e, Map.of());
+        assertEquals("999", env.get("LAST"));
+        assertEquals("v1", env.get("V1"));
+        assertEquals("s3cr3t", env.get("S990"));
+        assertEquals(100, e.getSensitiveVariables().size());
+    }
+
+    @Test public void effectiveEnvironmentCache() throws Exception {
+        EnvironmentExpander e = EnvironmentExpander.merge(EnvironmentExpander.constant(Map.of("A", "1")), EnvironmentExpander.constant(Map.of("B", "2")));
+        assertTrue(e.isCacheable());
+        EnvVars custom = new EnvVars("X", "x");
+        long hits = EffectiveEnvironmentCache.getHits();
+        long misses = EffectiveEnvironmentCache.getMisses();
+        EnvVars first = EnvironmentExpander.getEffectiveEnvironment(custom, null, e, null, TaskListener.NULL);
+        assertEquals(new EnvVars("A", "1", "B", "2", "X", "x"), first);
+        first.put("A", "modified");
+        EnvVars second = EnvironmentExpander.getEffectiveEnvironment(new EnvVars("X", "x"), null, e, null, TaskListener.NULL);
+        assertEquals(new EnvVars("A", "1", "B", "2", "X", "x"), second);
+        assertEquals(1, EffectiveEnvironmentCache.getHits() - hits);
+        assertEquals(1, EffectiveEnvironmentCache.getMisses() - misses);
+        custom.put("X", "y"); // modified in place
+        assertEquals(new EnvVars("A", "1", "B", "2", "X", "y"), EnvironmentExpander.getEffectiveEnvironment(custom, null, e, null, TaskListener.NULL));
+        assertEquals(2, EffectiveEnvironmentCache.getMisses() - misses);
+        EffectiveEnvironmentCache.invalidate();
+        EnvironmentExpander.getEffectiveEnvironment(custom, null, e, null, TaskListener.NULL);
+        assertEquals(3, EffectiveEnvironmentCache.getMisses() - misses);
+        EnvironmentExpander secret = EnvironmentExpander.merge(e, new Secret("TOKEN"));
+        assertFalse(secret.isCacheable());
+        EnvironmentExpander.getEffectiveEnvironment(custom, null, secret, null, TaskListener.NULL);
+        EnvironmentExpander.getEffectiveEnvironment(custom, null, secret, null, TaskListener.NULL);
+        assertEquals(1, EffectiveEnvironmentCache.getHits() - hits);
+        assertEquals(3, EffectiveEnvironmentCache.getMisses() - misses);
+    }
+
+    @Test public void cachedContributions() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        StepEnvironmentContributor contributor = new StepEnvironmentContributor() {
+            @Override public void buildEnvironmentFor(StepContext stepContext, EnvVars envs, TaskListener listener) throws IOException, InterruptedException {
+                calls.incrementAndGet();
+                envs.put("OWNER", stepContext.get(String.class));
+                envs.remove("SCRATCH");
+            }
+            @Override public Set<Class<?>> getCacheKeyTypes() {
+                return Set.of(String.class);
+            }
+        };
+        TestStepContext alice = new TestStepContext().with(String.class, "alice");
+        EnvVars env = new EnvVars("SCRATCH", "x", "KEEP", "y");
+        EffectiveEnvironmentCache.contribute(contributor, alice, env, TaskListener.NULL);
+        assertEquals(new EnvVars("OWNER", "alice", "KEEP", "y"), env);
+        env = new EnvVars("SCRATCH", "x", "OTHER", "z");
+        EffectiveEnvironmentCache.contribute(contributor, new TestStepContext().with(String.class, "alice"), env, TaskListener.NULL);
+        assertEquals(new EnvVars("OWNER", "alice", "OTHER", "z"), env);
+        assertEquals(1, calls.get());
+        env = new EnvVars();
+        EffectiveEnvironmentCache.contribute(contributor, new TestStepContext().with(String.class, "bob"), env, TaskListener.NULL);
+        assertEquals(new EnvVars("OWNER", "bob"), env);
+        assertEquals(2, calls.get());
+        EffectiveEnvironmentCache.invalidate();
+        EffectiveEnvironmentCache.contribute(contributor, alice, new EnvVars(), TaskListener.NULL);
+        assertEquals(3, calls.get());
+    }
+
+    @Test public void cachedContributionsReplayWrites() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        StepEnvironmentContributor contributor = new StepEnvironmentContributor() {
+            @Override public void buildEnvironmentFor(StepContext stepContext, EnvVars envs, TaskListener listener) throws IOException, InterruptedException {
+                calls.incrementAndGet();
+                envs.put("FOO", "1");
+                envs.remove("SCRATCH");
+            }
+            @Override public Set<Class<?>> getCacheKeyTypes() {
+                return Set.of(String.class);
+            }
+        };
+        EnvVars env = new EnvVars("FOO", "1");
+        EffectiveEnvironmentCache.contribute(contributor, new TestStepContext().with(String.class, "replay"), env, TaskListener.NULL);
+        assertEquals(new EnvVars("FOO", "1"), env);
+        env = new EnvVars("FOO", "2", "SCRATCH", "x");
+        EffectiveEnvironmentCache.contribute(contributor, new TestStepContext().with(String.class, "replay"), env, TaskListener.NULL);
+        assertEquals(new EnvVars("FOO", "1"), env);
+        assertEquals(1, calls.get());
+    }
+
+    private static final class Owner {
+        final String name;
+        Owner(String name) {
+            this.name = name;
+        }
+        @Override public boolean equals(Object o) {
+            return o instanceof Owner && ((Owner) o).name.equals(name);
+        }
+        @Override public int hashCode() {
+            return name.hashCode();
+        }
+    }
+
+    @Test public void cachedContributionsDoNotRetainValues() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        StepEnvironmentContributor contributor = new StepEnvironmentContributor() {
+            @Override public void buildEnvironmentFor(StepContext stepContext, EnvVars envs, TaskListener listener) throws IOException, InterruptedException {
+                calls.incrementAndGet();
+                envs.put("OWNER", stepContext.get(Owner.class).name);
+            }
+            @Override public Set<Class<?>> getCacheKeyTypes() {
+                return Set.of(Owner.class);
+            }
+        };
+        Owner owner = new Owner("alice");
+        EffectiveEnvironmentCache.contribute(contributor, new TestStepContext().with(Owner.class, owner), new EnvVars(), TaskListener.NULL);
+        EnvVars env = new EnvVars();
+        EffectiveEnvironmentCache.contribute(contributor, new TestStepContext().with(Owner.class, new Owner("alice")), env, TaskListener.NULL);
+        assertEquals(new EnvVars("OWNER", "alice"), env);
+        assertEquals(1, calls.get());
+        WeakReference<Owner> ref = new WeakReference<>(owner);
+        owner = null;
+        MemoryAssert.assertGC(ref, true);
+    }
+
+    private static byte[] serialize(Object o) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(baos)) {
+            oos.writeObject(o);
+        }
+        return baos.toByteArray();
+    }
+
+    @Test public void deltaSerialization() throws Exception {
+        Map<String, String> big = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            big.put("VARIABLE_" + i, "value " + i);
+        }
+        List<EnvironmentExpander> levels = new ArrayList<>();
+        EnvironmentExpander e = EnvironmentExpander.constant(big);
+        levels.add(e);
+        for (int i = 0; i < 10; i++) {
+            e = EnvironmentExpander.merge(e, EnvironmentExpander.constant(Map.of("LEVEL", "" + i, "VARIABLE_" + i, "changed", "PATH+L" + i, "/l" + i)));
+            if (i == 5) {
+                e = EnvironmentExpander.merge(e, new Secret("TOKEN"));
+            }
+            levels.add(e);
+        }
+        byte[] all = serialize(levels);
+        byte[] outer = serialize(levels.get(0));
+        assertTrue("saving " + levels.size() + " levels took " + all.length + " bytes vs. " + outer.length + " for the outermost", all.length < outer.length * 2);
+        @SuppressWarnings("unchecked") List<EnvironmentExpander> loaded = (List<EnvironmentExpander>) new ObjectInputStream(new ByteArrayInputStream(all)).readObject();
+        for (int i = 0; i < levels.size(); i++) {
+            Map<String, String> initial = Map.of("PATH", "/usr/bin");
+            assertEquals("level " + i, expand(levels.get(i), initial), expand(loaded.get(i), initial));
+        }
+        assertEquals(Set.of("TOKEN"), loaded.get(levels.size() - 1).getSensitiveVariables());
+    }
+
+    @Test public void legacyMergedForm() throws Exception {
+        // Serialized by the original implementation: merge(merge(constant({A=1, PATH+X=/x}), constant({B=2})), constant({A=3}))
+        EnvironmentExpander loaded;
+        try (ObjectInputStream ois = new ObjectInputStream(EnvironmentExpanderTest.class.getResourceAsStream("EnvironmentExpanderTest/legacyMerged.ser"))) {
+            loaded = (EnvironmentExpander) ois.readObject();
+        }
+        assertFalse(loaded.getClass().getName(), loaded.getClass().getName().endsWith("$MergedEnvironmentExpander"));
+        EnvironmentExpander current = EnvironmentExpander.merge(EnvironmentExpander.merge(EnvironmentExpander.constant(new TreeMap<>(Map.of("A", "1", "PATH+X", "/x"))), EnvironmentExpander.constant(Map.of("B", "2"))), EnvironmentExpander.constant(Map.of("A", "3")));
+        Map<String, String> initial = Map.of("PATH", "/usr/bin");
+        assertEquals(new EnvVars("A", "3", "B", "2", "PATH", "/x" + File.pathSeparator + "/usr/bin"), expand(loaded, initial));
+        assertEquals(expand(current, initial), expand(loaded, initial));
+        assertEquals(expand(current, initial), expand((EnvironmentExpander) new ObjectInputStream(new ByteArrayInputStream(serialize(loaded))).readObject(), initial));
+    }
+
+}
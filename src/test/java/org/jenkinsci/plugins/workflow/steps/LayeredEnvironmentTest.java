@@ -0,0 +1,96 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.EnvVars;
+import hudson.model.TaskListener;
+import java.io.File;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LayeredEnvironmentTest {
+
+    @Test public void layers() {
+        EnvVars base = new EnvVars("PATH", "/usr/bin", "HOME", "/home/me");
+        LayeredEnvironment e = LayeredEnvironment.wrap(base);
+        LayeredEnvironment e2 = e.override("PATH+A", "/a").override("path+b", "/b").override("Home", "");
+        assertEquals(String.join(File.pathSeparator, "/b", "/a", "/usr/bin"), e2.get("PATH"));
+        assertNull(e2.get("HOME"));
+        assertEquals("/home/me", e.get("home"));
+        assertEquals(2, e2.getDepth());
+        assertEquals(new EnvVars("PATH", String.join(File.pathSeparator, "/b", "/a", "/usr/bin")), e2.toEnvVars());
+        assertEquals(new EnvVars("PATH", "/usr/bin", "HOME", "/home/me"), base);
+    }
+
+    @Test public void squashing() {
+        LayeredEnvironment e = LayeredEnvironment.wrap(new EnvVars());
+        for (int i = 0; i < LayeredEnvironment.MAX_DEPTH * 3; i++) {
+            e = e.override("V" + i, "v" + i);
+            assertTrue(e.getDepth() <= LayeredEnvironment.MAX_DEPTH);
+        }
+        assertEquals("v0", e.get("V0"));
+        assertEquals(LayeredEnvironment.MAX_DEPTH * 3, e.toEnvVars().size());
+    }
+
+    @Test public void sameAsEffectiveEnvironment() throws Exception {
+        EnvironmentExpander expander = null;
+        for (int i = 0; i < 20; i++) {
+            expander = EnvironmentExpander.merge(expander, EnvironmentExpander.constant(Map.of("PATH+L" + i, "/l" + i, "LEVEL", "" + i)));
+            expander = EnvironmentExpander.merge(expander, new EnvironmentExpander() {
+                @Override public void expand(EnvVars env) {
+                    env.put("DYNAMIC", env.get("LEVEL"));
+                }
+            });
+        }
+        EnvVars custom = new EnvVars("PATH", "/usr/bin", "BUILD_NUMBER", "1");
+        EnvVars contextual = new EnvVars("NODE_NAME", "agent", "BUILD_NUMBER", "0");
+        EnvVars expected = EnvironmentExpander.getEffectiveEnvironment(custom, contextual, expander, null, TaskListener.NULL);
+        assertEquals(expected, EnvironmentExpander.getEffectiveLayeredEnvironment(custom, contextual, expander, null, TaskListener.NULL).toEnvVars());
+        assertEquals("19", expected.get("DYNAMIC"));
+    }
+
+    @Test public void oneCopyForDynamicParts() throws Exception {
+        Set<EnvVars> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        EnvironmentExpander expander = null;
+        for (int i = 0; i < 5; i++) {
+            expander = EnvironmentExpander.merge(expander, new EnvironmentExpander() {
+                @Override public void expand(EnvVars env) {
+                    seen.add(env);
+                    env.put("DYNAMIC", "x");
+                }
+            });
+            expander = EnvironmentExpander.merge(expander, EnvironmentExpander.constant(Map.of("LEVEL", "" + i)));
+        }
+        LayeredEnvironment env = EnvironmentExpander.getEffectiveLayeredEnvironment(new EnvVars("PATH", "/usr/bin"), null, expander, null, TaskListener.NULL);
+        assertEquals(new EnvVars("PATH", "/usr/bin", "DYNAMIC", "x", "LEVEL", "4"), env.toEnvVars());
+        assertEquals(1, seen.size());
+    }
+
+}
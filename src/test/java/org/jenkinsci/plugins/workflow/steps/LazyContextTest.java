@@ -0,0 +1,65 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LazyContextTest {
+
+    @Test public void computedOnce() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        LazyContext<CharSequence> lazy = new LazyContext<>(CharSequence.class, () -> "value #" + count.incrementAndGet());
+        assertEquals(0, count.get());
+        assertTrue(lazy.mightProvide(Object.class));
+        assertTrue(lazy.mightProvide(String.class));
+        assertFalse(lazy.mightProvide(Runnable.class));
+        assertNull(lazy.get(Runnable.class));
+        assertEquals(0, count.get());
+        assertEquals("value #1", lazy.get(CharSequence.class));
+        assertEquals("value #1", lazy.get(String.class));
+        assertNull(lazy.get(StringBuilder.class));
+        assertEquals("value #1", lazy.get());
+        assertEquals(1, count.get());
+    }
+
+    @Test public void failuresAreRetried() throws Exception {
+        AtomicInteger count = new AtomicInteger();
+        LazyContext<String> lazy = new LazyContext<>(String.class, () -> {
+            if (count.incrementAndGet() == 1) {
+                throw new IOException("not yet");
+            }
+            return "ok";
+        });
+        assertThrows(IOException.class, lazy::get);
+        assertEquals("ok", lazy.get());
+        assertEquals("ok", lazy.get());
+        assertEquals(2, count.get());
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class NonBlockingStepExecutorsTest {
+
+    @After public void reset() {
+        NonBlockingStepExecutors.setVirtualThreads(false);
+        NonBlockingStepExecutors.configure(0, Integer.MAX_VALUE, 0, NonBlockingStepExecutors.RejectionPolicy.FAIL);
+    }
+
+    @Test public void boundedPoolRejects() throws Exception {
+        NonBlockingStepExecutors.configure(1, 1, 1, NonBlockingStepExecutors.RejectionPolicy.FAIL);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = NonBlockingStepExecutors.get().submit(() -> {
+            release.await();
+            return null;
+        });
+        Future<?> queued = NonBlockingStepExecutors.get().submit(() -> {});
+        assertThrows(RejectedExecutionException.class, () -> NonBlockingStepExecutors.get().submit(() -> {}));
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+        queued.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test public void callerRuns() throws Exception {
+        NonBlockingStepExecutors.configure(1, 1, 0, NonBlockingStepExecutors.RejectionPolicy.CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> running = NonBlockingStepExecutors.get().submit(() -> {
+            release.await();
+            return null;
+        });
+        Thread caller = Thread.currentThread();
+        Thread[] ran = new Thread[1];
+        NonBlockingStepExecutors.get().submit(() -> ran[0] = Thread.currentThread()).get(10, TimeUnit.SECONDS);
+        assertSame(caller, ran[0]);
+        release.countDown();
+        running.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test public void virtualThreads() throws Exception {
+        assumeTrue(Runtime.version().feature() >= 21);
+        NonBlockingStepExecutors.setVirtualThreads(true);
+        Thread t = NonBlockingStepExecutors.get().submit(Thread::currentThread).get(10, TimeUnit.SECONDS);
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(t));
+        assertThat(t.getName(), startsWith(SynchronousNonBlockingStepExecution.class.getName() + " [#"));
+    }
+
+    @Test public void invalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> NonBlockingStepExecutors.configure(2, 1, 0, NonBlockingStepExecutors.RejectionPolicy.FAIL));
+        assertThrows(IllegalArgumentException.class, () -> NonBlockingStepExecutors.configure(0, 0, 0, NonBlockingStepExecutors.RejectionPolicy.FAIL));
+        assertThrows(IllegalArgumentException.class, () -> NonBlockingStepExecutors.configure(0, 1, -1, NonBlockingStepExecutors.RejectionPolicy.FAIL));
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class NonBlockingStepMetricsTest {
+
+    @Test public void histogram() {
+        NonBlockingStepMetrics.Histogram h = new NonBlockingStepMetrics.Histogram();
+        assertEquals(0, h.getPercentileMillis(50));
+        for (int i = 0; i < 90; i++) {
+            h.record(TimeUnit.MICROSECONDS.toNanos(500));
+        }
+        for (int i = 0; i < 10; i++) {
+            h.record(TimeUnit.MILLISECONDS.toNanos(100));
+        }
+        assertEquals(100, h.getCount());
+        assertEquals(1, h.getPercentileMillis(50));
+        assertEquals(100, h.getPercentileMillis(95));
+        assertEquals(100, h.getMaxMillis());
+        assertEquals(90, h.getCounts()[0]);
+        assertEquals(10, h.getCounts()[7]);
+    }
+
+    @Test public void instrument() {
+        NonBlockingStepMetrics.instrument("metricsTest", () -> {}).run();
+        NonBlockingStepMetrics.StepMetrics m = NonBlockingStepMetrics.getByFunctionName().get("metricsTest");
+        assertEquals(1, m.getSubmitted());
+        assertEquals(1, m.getCompleted());
+        assertEquals(1, m.getPeakActive());
+        assertEquals(0, m.getActive());
+        assertEquals(1, m.getRunTime().getCount());
+    }
+
+    @Test public void failure() throws Exception {
+        CountDownLatch failed = new CountDownLatch(1);
+        NonBlockingStepExecutors.get().submit(NonBlockingStepMetrics.instrument("metricsFailure", () -> {
+            failed.countDown(); // like onFailure, which the build sees before the task returns
+            throw new IllegalStateException("ought to fail");
+        }));
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        NonBlockingStepMetrics.StepMetrics m = NonBlockingStepMetrics.getByFunctionName().get("metricsFailure");
+        assertEquals(1, m.getSubmitted());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (m.getCompleted() < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(1, m.getCompleted());
+        assertEquals(0, m.getActive());
+        assertEquals(1, m.getRunTime().getCount());
+    }
+
+}
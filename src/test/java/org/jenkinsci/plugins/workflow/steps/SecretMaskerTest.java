@@ -0,0 +1,88 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import hudson.EnvVars;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import static org.junit.Assert.*;
+
+public class SecretMaskerTest {
+
+    @Rule public JenkinsRule r = new JenkinsRule();
+
+    private static String mask(String text, String... patterns) throws Exception {
+        List<byte[]> bytes = new ArrayList<>();
+        for (String p : patterns) {
+            bytes.add(p.getBytes(StandardCharsets.UTF_8));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] b = text.getBytes(StandardCharsets.UTF_8);
+        new SecretMasker.Automaton(bytes).mask(b, b.length, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test public void automaton() throws Exception {
+        assertEquals("nothing here", mask("nothing here", "secret"));
+        assertEquals("a **** b ****", mask("a secret b secret", "secret"));
+        assertEquals("****", mask("he", "he", "she", "his", "hers"));
+        assertEquals("u****x", mask("ushersx", "he", "she", "his", "hers"));
+        assertEquals("x****y", mask("xabcdey", "abc", "cde"));
+        assertEquals("****", mask("abab", "ab"));
+        assertEquals("p****q", mask("paébq", "aéb"));
+    }
+
+    @Test public void ofSensitiveVariables() throws Exception {
+        EnvironmentExpander expander = EnvironmentExpander.merge(EnvironmentExpander.constant(Map.of("PUBLIC", "visible")), new EnvironmentExpander() {
+            @Override public void expand(EnvVars env) {
+                env.put("TOKEN", "t0k3n");
+                env.put("PASSWORD", "pa55");
+            }
+            @Override public Set<String> getSensitiveVariables() {
+                return Set.of("TOKEN", "PASSWORD");
+            }
+        });
+        EnvVars env = new EnvVars();
+        expander.expand(env);
+        SecretMasker masker = SecretMasker.of(expander, env);
+        assertNotNull(masker);
+        assertEquals("visible **** ****", masker.mask("visible t0k3n pa55"));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (var decorated = masker.decorateLogger(null, out)) {
+            decorated.write("token=t0k3n\nok\n".getBytes(StandardCharsets.UTF_8));
+        }
+        assertEquals("token=****\nok\n", out.toString(StandardCharsets.UTF_8));
+        assertNull(SecretMasker.of(EnvironmentExpander.constant(Map.of("A", "b")), env));
+    }
+
+}
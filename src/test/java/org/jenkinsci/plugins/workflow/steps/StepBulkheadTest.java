@@ -0,0 +1,106 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StepBulkheadTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test public void queueThenReject() throws Exception {
+        StepBulkhead bulkhead = new StepBulkhead("slow", 1, 1, () -> executor);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = bulkhead.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException x) {
+                throw new AssertionError(x);
+            }
+        });
+        Future<?> second = bulkhead.submit(() -> {});
+        assertEquals(1, bulkhead.getRunning());
+        assertEquals(1, bulkhead.getQueued());
+        assertEquals(1.0, bulkhead.getSaturation(), 0.001);
+        assertThrows(RejectedExecutionException.class, () -> bulkhead.submit(() -> {}));
+        assertEquals(1, bulkhead.getRejected());
+        assertFalse(second.isDone());
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        assertEquals(3, bulkhead.getSubmitted());
+        assertEquals(1, bulkhead.getPeakRunning());
+    }
+
+    @Test public void cancelWhileQueued() throws Exception {
+        StepBulkhead bulkhead = new StepBulkhead("slow", 1, 5, () -> executor);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = bulkhead.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException x) {
+                throw new AssertionError(x);
+            }
+        });
+        boolean[] ran = new boolean[1];
+        Future<?> second = bulkhead.submit(() -> ran[0] = true);
+        assertTrue(second.cancel(true));
+        Future<?> third = bulkhead.submit(() -> {});
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        third.get(10, TimeUnit.SECONDS);
+        assertFalse(ran[0]);
+    }
+
+    @Test public void raisingLimitDrainsQueue() throws Exception {
+        StepBulkhead bulkhead = new StepBulkhead("slow", 1, 5, () -> executor);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<?> first = bulkhead.submit(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException x) {
+                throw new AssertionError(x);
+            }
+        });
+        Future<?> second = bulkhead.submit(() -> {});
+        bulkhead.setLimits(2, 5);
+        second.get(10, TimeUnit.SECONDS);
+        release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+    }
+
+}
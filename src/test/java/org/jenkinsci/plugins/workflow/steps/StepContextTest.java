@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StepContextTest {
+
+    @Test public void memoization() throws Exception {
+        TestStepContext c = new TestStepContext().with(String.class, "hello").with(Integer.class, 42);
+        assertEquals("hello", c.getMemoized(String.class));
+        assertEquals("hello", c.getMemoized(String.class));
+        assertEquals(2, c.lookups(String.class));
+        c.enableMemoization();
+        assertEquals("hello", c.getMemoized(String.class));
+        assertEquals("hello", c.getMemoized(String.class));
+        assertEquals(3, c.lookups(String.class));
+        c.with(String.class, "goodbye");
+        assertEquals("hello", c.getMemoized(String.class));
+        c.invalidate(CharSequence.class);
+        assertEquals("goodbye", c.getMemoized(String.class));
+        assertEquals(4, c.lookups(String.class));
+        c.invalidateAll();
+        assertEquals("goodbye", c.getMemoized(String.class));
+        assertEquals(5, c.lookups(String.class));
+    }
+
+    @Test public void memoizationSkipsNullsAndUnreadyContexts() throws Exception {
+        TestStepContext c = new TestStepContext();
+        c.enableMemoization();
+        assertNull(c.getMemoized(String.class));
+        c.with(String.class, "later");
+        assertEquals("later", c.getMemoized(String.class));
+        c.ready = false;
+        c.with(Integer.class, 1);
+        assertEquals(Integer.valueOf(1), c.getMemoized(Integer.class));
+        c.ready = true;
+        c.with(Integer.class, 2);
+        assertEquals(Integer.valueOf(2), c.getMemoized(Integer.class));
+    }
+
+    @Test public void volatileTypes() throws Exception {
+        TestStepContext c = new TestStepContext().with(String.class, "one").with(Integer.class, 1);
+        c.enableMemoization();
+        assertEquals(Integer.valueOf(1), c.getMemoized(Integer.class));
+        c.declareVolatile(Number.class);
+        c.with(Integer.class, 2);
+        assertEquals(Integer.valueOf(2), c.getMemoized(Integer.class));
+        assertEquals(Integer.valueOf(2), c.getMemoized(Integer.class));
+        assertEquals(3, c.lookups(Integer.class));
+        assertEquals("one", c.getMemoized(String.class));
+        assertEquals("one", c.getMemoized(String.class));
+        assertEquals(1, c.lookups(String.class));
+    }
+
+    @Test public void getAll() throws Exception {
+        TestStepContext c = new TestStepContext().with(String.class, "hello").with(Integer.class, 42);
+        ContextValues values = c.getAll(List.of(Integer.class, Runnable.class, CharSequence.class));
+        assertEquals(List.of(Integer.class, Runnable.class, CharSequence.class), List.copyOf(values.getTypes()));
+        assertEquals(Integer.valueOf(42), values.require(Integer.class));
+        assertEquals("hello", values.get(CharSequence.class));
+        assertNull(values.get(Runnable.class));
+        assertEquals(List.of(Runnable.class), List.copyOf(values.getMissing()));
+        assertThrows(MissingContextVariableException.class, () -> values.require(Runnable.class));
+        assertThrows(IllegalArgumentException.class, () -> values.get(String.class));
+    }
+
+    @Test public void getAsync() throws Exception {
+        TestStepContext c = new TestStepContext().with(String.class, "hello");
+        assertEquals("hello", c.getAsync(String.class).get(10, TimeUnit.SECONDS));
+        assertNull(c.getAsync(Runnable.class).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test public void getAsyncSaturated() throws Exception {
+        NonBlockingStepExecutors.configure(1, 1, 0, NonBlockingStepExecutors.RejectionPolicy.CALLER_RUNS);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            Future<?> running = NonBlockingStepExecutors.get().submit(() -> {
+                release.await();
+                return null;
+            });
+            TestStepContext c = new TestStepContext().with(String.class, "hello");
+            ListenableFuture<String> f = c.getAsync(String.class);
+            ExecutionException x = assertThrows(ExecutionException.class, () -> f.get(10, TimeUnit.SECONDS));
+            assertTrue(x.getCause() instanceof RejectedExecutionException);
+            assertEquals(0, c.lookups(String.class));
+            release.countDown();
+            running.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            NonBlockingStepExecutors.configure(0, Integer.MAX_VALUE, 0, NonBlockingStepExecutors.RejectionPolicy.FAIL);
+        }
+    }
+
+    @Test public void whenReady() throws Exception {
+        TestStepContext c = new TestStepContext();
+        assertTrue(c.whenReady().isDone());
+        c.ready = false;
+        ListenableFuture<Void> ready = c.whenReady();
+        Thread.sleep(ReadinessWaiter.CHECK_MILLIS * 3);
+        assertFalse(ready.isDone());
+        c.ready = true;
+        ready.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test public void whenReadyTimesOut() throws Exception {
+        TestStepContext c = new TestStepContext();
+        c.ready = false;
+        ListenableFuture<Void> ready = ReadinessWaiter.await(c, TimeUnit.MILLISECONDS.toNanos(ReadinessWaiter.CHECK_MILLIS * 2));
+        ExecutionException x = assertThrows(ExecutionException.class, () -> ready.get(10, TimeUnit.SECONDS));
+        assertTrue(x.getCause() instanceof TimeoutException);
+    }
+
+}
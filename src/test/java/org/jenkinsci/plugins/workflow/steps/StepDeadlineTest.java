@@ -0,0 +1,56 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class StepDeadlineTest {
+
+    @Test public void merge() {
+        StepDeadline early = StepDeadline.after(1, TimeUnit.MINUTES);
+        StepDeadline late = StepDeadline.after(1, TimeUnit.HOURS);
+        assertSame(early, StepDeadline.merge(early, late));
+        assertSame(early, StepDeadline.merge(late, early));
+        assertSame(late, StepDeadline.merge(null, late));
+        assertFalse(late.isExpired());
+        assertTrue(late.getRemaining(TimeUnit.MINUTES) > 50);
+    }
+
+    @Test public void onExpiry() throws Exception {
+        CountDownLatch fired = new CountDownLatch(2);
+        AtomicInteger cancelledRuns = new AtomicInteger();
+        StepDeadline.after(100, TimeUnit.MILLISECONDS).onExpiry(fired::countDown);
+        StepDeadline.at(0).onExpiry(fired::countDown);
+        StepDeadline.after(100, TimeUnit.MILLISECONDS).onExpiry(cancelledRuns::incrementAndGet).cancel();
+        assertTrue(fired.await(10, TimeUnit.SECONDS));
+        Thread.sleep(DeadlineScheduler.TICK_MILLIS * 2);
+        assertEquals(0, cancelledRuns.get());
+    }
+
+}
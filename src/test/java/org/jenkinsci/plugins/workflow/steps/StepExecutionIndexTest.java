@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class StepExecutionIndexTest {
+
+    private static class Base extends StepExecution {
+        Base() {
+            super(mock(StepContext.class));
+        }
+        @Override public boolean start() throws Exception {
+            return false;
+        }
+    }
+
+    private static final class Sub extends Base {}
+
+    private static final class Other extends StepExecution {
+        Other() {
+            super(mock(StepContext.class));
+        }
+        @Override public boolean start() throws Exception {
+            return false;
+        }
+    }
+
+    @Test public void bySupertype() {
+        StepExecutionIndex index = new StepExecutionIndex();
+        Base base = new Base();
+        Sub sub = new Sub();
+        Other other = new Other();
+        index.add(base);
+        index.add(sub);
+        index.add(other);
+        assertEquals(3, index.size());
+        assertEquals(new HashSet<>(Arrays.asList(base, sub)), new HashSet<>(index.get(Base.class)));
+        assertEquals(Collections.singletonList(sub), index.get(Sub.class));
+        assertEquals(Collections.singletonList(other), index.get(Other.class));
+        index.remove(sub);
+        assertEquals(Collections.singletonList(base), index.get(Base.class));
+        assertEquals(Collections.emptyList(), index.get(Sub.class));
+        assertEquals(2, index.size());
+    }
+
+}
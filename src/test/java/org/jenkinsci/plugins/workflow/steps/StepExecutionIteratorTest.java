@@ -0,0 +1,108 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class StepExecutionIteratorTest {
+
+    private static final class Exec extends StepExecution {
+        private final boolean busy;
+        Exec(boolean busy) {
+            super(mock(StepContext.class));
+            this.busy = busy;
+        }
+        @Override public boolean start() throws Exception {
+            return false;
+        }
+        @Override public boolean blocksRestart() {
+            return busy;
+        }
+        @Override public String getFunctionName() {
+            return busy ? "busy" : "idle";
+        }
+    }
+
+    @Test public void streamByState() {
+        Exec idle1 = new Exec(false), busy = new Exec(true), idle2 = new Exec(false);
+        StepExecutionIterator iterator = new StepExecutionIterator() {
+            @Override public ListenableFuture<?> apply(Function<StepExecution, Void> f) {
+                for (StepExecution e : Arrays.asList(idle1, busy, idle2)) {
+                    f.apply(e);
+                }
+                return Futures.immediateFuture(null);
+            }
+        };
+        assertSame(busy, iterator.stream(StepExecutionQuery.all().state(StepExecutionQuery.State.BUSY)).findFirst().orElse(null));
+        List<StepExecution> idle = iterator.stream(StepExecutionQuery.all().state(StepExecutionQuery.State.IDLE)).collect(Collectors.toList());
+        assertEquals(Arrays.asList(idle1, idle2), idle);
+        assertEquals(3, iterator.stream(StepExecutionQuery.all()).count());
+    }
+
+    @Test public void streamByFunctionName() {
+        Exec idle = new Exec(false), busy = new Exec(true);
+        StepExecutionIterator iterator = new StepExecutionIterator() {
+            @Override public ListenableFuture<?> apply(Function<StepExecution, Void> f) {
+                f.apply(idle);
+                f.apply(busy);
+                return Futures.immediateFuture(null);
+            }
+        };
+        assertEquals(Arrays.asList(busy), iterator.stream(StepExecutionQuery.all().functionName("busy")).collect(Collectors.toList()));
+    }
+
+    @Test public void streamTimeout() {
+        Exec loaded = new Exec(false);
+        StepExecutionIterator iterator = new StepExecutionIterator() {
+            @Override public ListenableFuture<?> apply(Function<StepExecution, Void> f) {
+                f.apply(loaded);
+                return SettableFuture.create(); // some other build never loads
+            }
+        };
+        assertEquals(Arrays.asList(loaded), iterator.stream(StepExecutionQuery.all(), 100, TimeUnit.MILLISECONDS).collect(Collectors.toList()));
+    }
+
+    @Test(timeout = 30_000) public void streamShortCircuits() {
+        Exec busy = new Exec(true);
+        StepExecutionIterator iterator = new StepExecutionIterator() {
+            @Override public ListenableFuture<?> apply(Function<StepExecution, Void> f) {
+                f.apply(busy);
+                return SettableFuture.create(); // some other build never loads
+            }
+        };
+        assertSame(busy, iterator.stream(StepExecutionQuery.all(), 1, TimeUnit.HOURS).findFirst().orElse(null));
+    }
+
+}
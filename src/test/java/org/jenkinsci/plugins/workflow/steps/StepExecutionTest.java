@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class StepExecutionTest {
+
+    private static final class StatusExecution extends StepExecution {
+        private final String status;
+        private final long delay;
+        StatusExecution(String status, long delay) {
+            super(mock(StepContext.class));
+            this.status = status;
+            this.delay = delay;
+        }
+        @Override public boolean start() throws Exception {
+            return false;
+        }
+        @Override public String getStatus() {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException x) {
+                return "interrupted";
+            }
+            return status;
+        }
+    }
+
+    @Test public void getStatusesBounded() {
+        StepExecution fast = new StatusExecution("fast", 0);
+        StepExecution unimplemented = new StatusExecution(null, 0);
+        StepExecution slow = new StatusExecution("slow", TimeUnit.MINUTES.toMillis(1));
+        List<StepExecution> reported = new ArrayList<>();
+        Map<StepExecution, String> statuses = StepExecution.getStatusesBounded(Arrays.asList(slow, fast, unimplemented), 2, TimeUnit.SECONDS, (e, status) -> reported.add(e));
+        assertEquals("fast", statuses.get(fast));
+        assertTrue(statuses.containsKey(unimplemented));
+        assertNull(statuses.get(unimplemented));
+        assertEquals(new TimeoutException().toString(), statuses.get(slow));
+        assertEquals(Arrays.asList(slow), reported.subList(2, 3));
+        assertEquals(new ArrayList<>(statuses.keySet()), reported);
+    }
+
+}
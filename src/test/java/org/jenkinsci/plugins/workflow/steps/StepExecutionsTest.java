@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import hudson.model.TaskListener;
+import java.util.Collections;
+import java.util.Set;
+import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
+import org.jenkinsci.plugins.workflow.job.WorkflowJob;
+import org.junit.ClassRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.test.BuildWatcher;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.TestExtension;
+import org.kohsuke.stapler.DataBoundConstructor;
+
+public class StepExecutionsTest {
+
+    @ClassRule public static BuildWatcher buildWatcher = new BuildWatcher();
+
+    @Rule public JenkinsRule r = new JenkinsRule();
+
+    @Test public void functionNames() throws Exception {
+        WorkflowJob p = r.createProject(WorkflowJob.class);
+        p.setDefinition(new CpsFlowDefinition("lambdaOne(); lambdaTwo()", true));
+        r.assertLogContains("lambdaOne running as lambdaOne", r.buildAndAssertSuccess(p));
+        assertNotNull(NonBlockingStepMetrics.getByFunctionName().get("lambdaOne"));
+        assertNotNull(NonBlockingStepMetrics.getByFunctionName().get("lambdaTwo"));
+        assertEquals(1, NonBlockingStepMetrics.getByFunctionName().get("lambdaTwo").getCompleted());
+    }
+
+    public static final class LambdaOneStep extends Step {
+        @DataBoundConstructor public LambdaOneStep() {}
+        @Override public StepExecution start(StepContext context) {
+            StepExecution[] execution = new StepExecution[1];
+            execution[0] = StepExecutions.synchronousNonBlockingVoid(context, c -> c.get(TaskListener.class).getLogger().println("lambdaOne running as " + execution[0].getFunctionName()));
+            return execution[0];
+        }
+        @TestExtension("functionNames") public static final class DescriptorImpl extends StepDescriptor {
+            @Override public String getFunctionName() {
+                return "lambdaOne";
+            }
+            @Override public Set<? extends Class<?>> getRequiredContext() {
+                return Collections.singleton(TaskListener.class);
+            }
+        }
+    }
+
+    public static final class LambdaTwoStep extends Step {
+        @DataBoundConstructor public LambdaTwoStep() {}
+        @Override public StepExecution start(StepContext context) {
+            return StepExecutions.synchronousNonBlocking(context, c -> null);
+        }
+        @TestExtension("functionNames") public static final class DescriptorImpl extends StepDescriptor {
+            @Override public String getFunctionName() {
+                return "lambdaTwo";
+            }
+            @Override public Set<? extends Class<?>> getRequiredContext() {
+                return Collections.emptySet();
+            }
+        }
+    }
+
+}
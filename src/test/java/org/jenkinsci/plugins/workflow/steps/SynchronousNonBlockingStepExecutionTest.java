@@ -11,6 +11,8 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 
+import java.util.concurrent.TimeUnit;
+import jenkins.model.InterruptedBuildAction;
 import jenkins.model.Jenkins;
 
 import org.jenkinsci.plugins.workflow.cps.CpsFlowDefinition;
@@ -30,6 +32,7 @@ import org.jvnet.hudson.test.TestExtension;
 import org.kohsuke.stapler.DataBoundConstructor;
 
 import java.util.Collections;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
 public class SynchronousNonBlockingStepExecutionTest {
@@ -322,4 +325,50 @@ public class SynchronousNonBlockingStepExecutionTest {
             }
         }
     }
+
+    @Test public void deadline() throws Exception {
+        WorkflowJob p = j.createProject(WorkflowJob.class, "p");
+        p.setDefinition(new CpsFlowDefinition("withDeadline(1) {sleepForever()}", true));
+        WorkflowRun b = j.assertBuildStatus(Result.ABORTED, p.scheduleBuild2(0));
+        InterruptedBuildAction action = b.getAction(InterruptedBuildAction.class);
+        assertNotNull(action);
+        assertTrue(action.getCauses().toString(), action.getCauses().stream().anyMatch(StepDeadline.ExceededCause.class::isInstance));
+    }
+    public static final class WithDeadlineStep extends Step {
+        private final int seconds;
+        @DataBoundConstructor public WithDeadlineStep(int seconds) {
+            this.seconds = seconds;
+        }
+        @Override public StepExecution start(StepContext context) {
+            return StepExecutions.block(context, (c, invoker) -> invoker.withContext(StepDeadline.merge(c.getDeadline(), StepDeadline.after(seconds, TimeUnit.SECONDS))));
+        }
+        @TestExtension("deadline") public static final class DescriptorImpl extends StepDescriptor {
+            @Override public Set<? extends Class<?>> getRequiredContext() {
+                return Collections.emptySet();
+            }
+            @Override public String getFunctionName() {
+                return "withDeadline";
+            }
+            @Override public boolean takesImplicitBlockArgument() {
+                return true;
+            }
+        }
+    }
+    public static final class SleepForeverStep extends Step {
+        @DataBoundConstructor public SleepForeverStep() {}
+        @Override public StepExecution start(StepContext context) {
+            return StepExecutions.synchronousNonBlockingVoid(context, c -> {
+                c.get(TaskListener.class).getLogger().println("sleeping");
+                Thread.sleep(Long.MAX_VALUE);
+            });
+        }
+        @TestExtension("deadline") public static final class DescriptorImpl extends StepDescriptor {
+            @Override public Set<? extends Class<?>> getRequiredContext() {
+                return Collections.singleton(TaskListener.class);
+            }
+            @Override public String getFunctionName() {
+                return "sleepForever";
+            }
+        }
+    }
 }
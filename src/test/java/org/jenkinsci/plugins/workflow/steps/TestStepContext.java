@@ -0,0 +1,93 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2026 CloudBees, Inc.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+
+package org.jenkinsci.plugins.workflow.steps;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import hudson.model.Result;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Simple {@link StepContext} backed by a map of values, counting lookups.
+ */
+class TestStepContext extends StepContext {
+
+    private static final long serialVersionUID = 1L;
+
+    final Map<Class<?>, Object> values = new HashMap<>();
+    final Map<Class<?>, AtomicInteger> lookups = new ConcurrentHashMap<>();
+    volatile boolean ready = true;
+
+    TestStepContext with(Class<?> type, Object value) {
+        values.put(type, value);
+        return this;
+    }
+
+    int lookups(Class<?> type) {
+        AtomicInteger count = lookups.get(type);
+        return count != null ? count.get() : 0;
+    }
+
+    @Override public <T> T get(Class<T> key) {
+        lookups.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
+        for (Map.Entry<Class<?>, Object> entry : values.entrySet()) {
+            if (key.isAssignableFrom(entry.getKey())) {
+                return key.cast(entry.getValue());
+            }
+        }
+        return null;
+    }
+
+    @Override public void onSuccess(Object result) {}
+
+    @Override public void onFailure(Throwable t) {}
+
+    @Override public boolean isReady() {
+        return ready;
+    }
+
+    @Override public ListenableFuture<Void> saveState() {
+        return Futures.immediateFuture(null);
+    }
+
+    @Override public void setResult(Result r) {}
+
+    @Override public BodyInvoker newBodyInvoker() throws IllegalStateException {
+        throw new IllegalStateException();
+    }
+
+    @Override public boolean equals(Object o) {
+        return o == this;
+    }
+
+    @Override public int hashCode() {
+        return System.identityHashCode(this);
+    }
+
+}